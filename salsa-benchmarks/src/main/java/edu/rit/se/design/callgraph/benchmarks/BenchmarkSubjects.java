@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Resolves the programs used as benchmark inputs.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class BenchmarkSubjects {
+
+    /**
+     * Default exclusions file (bundled in Salsa's jar)
+     */
+    public static final String EXCLUSIONS_RESOURCE = "exclusions.txt";
+
+    /**
+     * Prefix for synthetic workloads (e.g., "generated:1000" is a program with 1,000 serializable classes)
+     */
+    public static final String GENERATED_PREFIX = "generated:";
+
+    /**
+     * Prefix for synthetic workloads without serialization (e.g., "plain:1000" is the same program as "generated:1000",
+     * but it never calls readObject/writeObject)
+     */
+    public static final String PLAIN_PREFIX = "plain:";
+
+    /**
+     * @param path a jar file, a directory with jar files (e.g., the repository's jars/ folder) or a synthetic workload
+     *             ({@link #GENERATED_PREFIX}N or {@link #PLAIN_PREFIX}N)
+     * @return the jar files (sorted by name)
+     */
+    public static List<File> resolveJars(String path) throws IOException {
+        if (path.startsWith(GENERATED_PREFIX) || path.startsWith(PLAIN_PREFIX)) {
+            boolean serialization = path.startsWith(GENERATED_PREFIX);
+            String size = path.substring(serialization ? GENERATED_PREFIX.length() : PLAIN_PREFIX.length());
+            WorkloadGenerator generator = new WorkloadGenerator(Integer.parseInt(size));
+            generator.setSerialization(serialization);
+            File jar = File.createTempFile("salsa-workload", ".jar");
+            jar.deleteOnExit();
+            return Arrays.asList(generator.generate(jar));
+        }
+        File file = new File(path);
+        if (file.isFile()) return Arrays.asList(file);
+        if (!file.isDirectory()) throw new IllegalArgumentException("No such jar file or directory: " + path);
+
+        File[] jars = file.listFiles((dir, name) -> name.endsWith(".jar"));
+        if (jars == null || jars.length == 0) throw new IllegalArgumentException("No jar files in " + path);
+        Arrays.sort(jars);
+        return new ArrayList<>(Arrays.asList(jars));
+    }
+
+    /**
+     * Copies the exclusions file bundled with Salsa to a temporary file (WALA reads exclusions from the file system).
+     *
+     * @return the exclusions file
+     */
+    public static File extractExclusions() throws IOException {
+        File tmp = File.createTempFile("salsa-exclusions", ".txt");
+        tmp.deleteOnExit();
+        try (InputStream in = BenchmarkSubjects.class.getClassLoader().getResourceAsStream(EXCLUSIONS_RESOURCE)) {
+            if (in == null) throw new IOException("Missing resource " + EXCLUSIONS_RESOURCE);
+            Files.copy(in, tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return tmp;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.benchmarks;
+
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilder;
+import com.ibm.wala.ipa.callgraph.IAnalysisCacheView;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import edu.rit.se.design.callgraph.analysis.PointerAnalysisPolicy;
+import edu.rit.se.design.callgraph.analysis.salsa.SalsaNCFACallGraphBuilder;
+import edu.rit.se.design.callgraph.analysis.salsa.SalsaZeroXCallGraphBuilder;
+import edu.rit.se.design.callgraph.analysis.salsa.SalsaZeroXContainerCallGraphBuilder;
+
+import static edu.rit.se.design.callgraph.analysis.PointerAnalysisPolicy.PolicyType.*;
+
+/**
+ * Call graph builders that are benchmarked: Salsa's builders and their plain WALA counterparts.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public enum BenchmarkedBuilder {
+    SALSA_0_1_CFA {
+        @Override
+        public CallGraphBuilder make(AnalysisScope scope, AnalysisOptions options, IAnalysisCacheView cache, IClassHierarchy cha) {
+            return SalsaZeroXCallGraphBuilder.make(scope, options, cache, cha, new PointerAnalysisPolicy(ZeroXCFA, 1));
+        }
+    },
+    SALSA_1_CFA {
+        @Override
+        public CallGraphBuilder make(AnalysisScope scope, AnalysisOptions options, IAnalysisCacheView cache, IClassHierarchy cha) {
+            return SalsaNCFACallGraphBuilder.make(scope, options, cache, cha, 1, new PointerAnalysisPolicy(nCFA, 1));
+        }
+    },
+    SALSA_0_1_CONTAINER_CFA {
+        @Override
+        public CallGraphBuilder make(AnalysisScope scope, AnalysisOptions options, IAnalysisCacheView cache, IClassHierarchy cha) {
+            return SalsaZeroXContainerCallGraphBuilder.make(scope, options, cache, cha, new PointerAnalysisPolicy(ZeroXContainerCFA, 1));
+        }
+    },
+    WALA_0_1_CFA {
+        @Override
+        public CallGraphBuilder make(AnalysisScope scope, AnalysisOptions options, IAnalysisCacheView cache, IClassHierarchy cha) {
+            return Util.makeZeroOneCFABuilder(Language.JAVA, options, cache, cha, scope);
+        }
+    },
+    WALA_1_CFA {
+        @Override
+        public CallGraphBuilder make(AnalysisScope scope, AnalysisOptions options, IAnalysisCacheView cache, IClassHierarchy cha) {
+            return Util.makeNCFABuilder(1, options, cache, cha, scope);
+        }
+    },
+    WALA_0_1_CONTAINER_CFA {
+        @Override
+        public CallGraphBuilder make(AnalysisScope scope, AnalysisOptions options, IAnalysisCacheView cache, IClassHierarchy cha) {
+            return Util.makeZeroOneContainerCFABuilder(options, cache, cha, scope);
+        }
+    };
+
+    /**
+     * Instantiates the builder (the options are modified by the builder, so they must not be shared across builders).
+     */
+    public abstract CallGraphBuilder make(AnalysisScope scope, AnalysisOptions options, IAnalysisCacheView cache, IClassHierarchy cha);
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.benchmarks;
+
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilder;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilderCancelException;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import edu.rit.se.design.callgraph.analysis.AbstractSerializationCallGraphBuilder;
+import edu.rit.se.design.callgraph.analysis.SerializationSolverMetrics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static edu.rit.se.design.callgraph.util.AnalysisUtils.*;
+
+/**
+ * Benchmarks call graph construction with Salsa's builders and the plain WALA builders.
+ * <p>
+ * Each operation builds the call graphs of all the jars given in the {@code jar} parameter (a jar file, a directory or
+ * {@code generated:N} for a synthetic workload with N serializable classes).
+ * Besides throughput, it reports the time spent in each phase of Salsa's solver as auxiliary counters
+ * (they stay at zero for WALA builders). Allocation rates can be obtained with the GC profiler:
+ * <pre>
+ * java -jar target/benchmarks.jar CallGraphConstructionBenchmark -p jar=../jars -prof gc
+ * </pre>
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xss16m", "-Xmx8g"})
+public class CallGraphConstructionBenchmark {
+
+    /**
+     * The programs to be analyzed. The jars are resolved once per trial, but scopes and class hierarchies are rebuilt
+     * before every operation: the classes of a hierarchy cache what they resolve (e.g., methods and subclasses),
+     * so reusing them would make later operations faster than a cold run of Salsa.
+     */
+    @State(Scope.Benchmark)
+    public static class Subject {
+        @Param({"../jars"})
+        public String jar;
+
+        @Param({"SALSA_0_1_CFA", "SALSA_1_CFA", "SALSA_0_1_CONTAINER_CFA", "WALA_0_1_CFA", "WALA_1_CFA", "WALA_0_1_CONTAINER_CFA"})
+        public BenchmarkedBuilder builder;
+
+        File exclusions;
+        List<File> jars;
+        List<AnalysisScope> scopes;
+        List<IClassHierarchy> hierarchies;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            exclusions = BenchmarkSubjects.extractExclusions();
+            jars = BenchmarkSubjects.resolveJars(jar);
+        }
+
+        // each operation takes seconds, so the overhead of an invocation-level setup is negligible
+        @Setup(Level.Invocation)
+        public void makeHierarchies() throws IOException, ClassHierarchyException {
+            scopes = new ArrayList<>();
+            hierarchies = new ArrayList<>();
+            for (File jarFile : jars) {
+                AnalysisScope scope = makeAnalysisScope(jarFile.getAbsolutePath(), exclusions);
+                scopes.add(scope);
+                hierarchies.add(makeIClassHierarchy(scope));
+            }
+        }
+    }
+
+    /**
+     * Time spent per phase of the serialization-aware solver, summed over all operations of an iteration.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Phases {
+        public long delegateSolverMillis;
+        public long serializationHandlerMillis;
+        public long solverIterations;
+        public long modelStatements;
+        public long callGraphNodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            delegateSolverMillis = 0;
+            serializationHandlerMillis = 0;
+            solverIterations = 0;
+            modelStatements = 0;
+            callGraphNodes = 0;
+        }
+
+        void record(CallGraphBuilder builder, CallGraph cg) {
+            callGraphNodes += cg.getNumberOfNodes();
+            if (builder instanceof AbstractSerializationCallGraphBuilder) {
+                SerializationSolverMetrics metrics = ((AbstractSerializationCallGraphBuilder) builder).getSolverMetrics();
+                delegateSolverMillis += metrics.getDelegateNanos() / 1_000_000L;
+                serializationHandlerMillis += metrics.getHandlerNanos() / 1_000_000L;
+                solverIterations += metrics.getNumberOfIterations();
+                modelStatements += metrics.getModelStatementsAdded();
+            }
+        }
+    }
+
+    @Benchmark
+    public void buildCallGraphs(Subject subject, Phases phases, Blackhole blackhole) throws CallGraphBuilderCancelException {
+        for (int i = 0; i < subject.scopes.size(); i++) {
+            AnalysisScope scope = subject.scopes.get(i);
+            IClassHierarchy cha = subject.hierarchies.get(i);
+            AnalysisOptions options = makeAnalysisOptions(scope, cha);
+            CallGraphBuilder builder = subject.builder.make(scope, options, makeAnalysisCache(), cha);
+            CallGraph cg = builder.makeCallGraph(options, null);
+            phases.record(builder, cg);
+            blackhole.consume(cg);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.benchmarks;
+
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilder;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilderCancelException;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import edu.rit.se.design.callgraph.analysis.salsa.SalsaSSAPropagationCallGraphBuilder;
+import edu.rit.se.design.callgraph.model.MethodModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static edu.rit.se.design.callgraph.util.AnalysisUtils.*;
+
+/**
+ * Benchmarks the cost of Salsa's delegating context selector, context interpreter and instance key factory, which tell
+ * model nodes apart from regular nodes on every call.
+ * <p>
+ * {@link #buildCallGraph} compares Salsa against its plain WALA counterpart on a program without serialization call sites
+ * ({@code plain:N} by default), so the serialization handler has nothing to model and the difference between the two
+ * builders is the delegation itself. Builders are created before each operation, so only the call graph construction is
+ * measured (not the indexes that Salsa computes when it is instantiated).
+ * {@link #isSyntheticModel} and {@link #modelSetContains} measure the model check alone, over the nodes of a call graph
+ * that has models.
+ * <pre>
+ * java -jar target/benchmarks.jar DelegationOverheadBenchmark
+ * </pre>
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xss16m", "-Xmx8g"})
+public class DelegationOverheadBenchmark {
+
+    /**
+     * A program without serialization and a fresh builder for it.
+     */
+    @State(Scope.Benchmark)
+    public static class Construction {
+        @Param({"plain:1000"})
+        public String jar;
+
+        @Param({"SALSA_0_1_CFA", "WALA_0_1_CFA"})
+        public BenchmarkedBuilder builder;
+
+        File exclusions;
+        List<File> jars;
+        List<AnalysisOptions> options;
+        List<CallGraphBuilder> builders;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            exclusions = BenchmarkSubjects.extractExclusions();
+            jars = BenchmarkSubjects.resolveJars(jar);
+        }
+
+        // hierarchies are rebuilt for the same reason as in CallGraphConstructionBenchmark
+        @Setup(Level.Invocation)
+        public void makeBuilders() throws IOException, ClassHierarchyException {
+            options = new ArrayList<>();
+            builders = new ArrayList<>();
+            for (File jarFile : jars) {
+                AnalysisScope scope = makeAnalysisScope(jarFile.getAbsolutePath(), exclusions);
+                IClassHierarchy cha = makeIClassHierarchy(scope);
+                AnalysisOptions analysisOptions = makeAnalysisOptions(scope, cha);
+                options.add(analysisOptions);
+                builders.add(builder.make(scope, analysisOptions, makeAnalysisCache(), cha));
+            }
+        }
+    }
+
+    /**
+     * The nodes of a call graph built by Salsa (with models) and the model nodes, for comparing the model checks.
+     */
+    @State(Scope.Benchmark)
+    public static class Nodes {
+        @Param({"../jars/Ser1-JRE1.8.jar"})
+        public String modelJar;
+
+        SalsaSSAPropagationCallGraphBuilder builder;
+        CGNode[] nodes;
+        Set<CGNode> models;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException, ClassHierarchyException, CallGraphBuilderCancelException {
+            File exclusions = BenchmarkSubjects.extractExclusions();
+            File jarFile = BenchmarkSubjects.resolveJars(modelJar).get(0);
+            AnalysisScope scope = makeAnalysisScope(jarFile.getAbsolutePath(), exclusions);
+            IClassHierarchy cha = makeIClassHierarchy(scope);
+            AnalysisOptions options = makeAnalysisOptions(scope, cha);
+            builder = (SalsaSSAPropagationCallGraphBuilder) BenchmarkedBuilder.SALSA_0_1_CFA.make(scope, options, makeAnalysisCache(), cha);
+            CallGraph cg = builder.makeCallGraph(options, null);
+            List<CGNode> all = new ArrayList<>();
+            models = new HashSet<>();
+            for (CGNode n : cg) {
+                all.add(n);
+                if (n.getMethod() instanceof MethodModel) models.add(n);
+            }
+            nodes = all.toArray(new CGNode[0]);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void buildCallGraph(Construction construction, Blackhole blackhole) throws CallGraphBuilderCancelException {
+        for (int i = 0; i < construction.builders.size(); i++)
+            blackhole.consume(construction.builders.get(i).makeCallGraph(construction.options.get(i), null));
+    }
+
+    /**
+     * Salsa's check (a bitset lookup on graph node ids), over all nodes of the call graph.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void isSyntheticModel(Nodes nodes, Blackhole blackhole) {
+        for (CGNode n : nodes.nodes) blackhole.consume(nodes.builder.isSyntheticModel(n));
+    }
+
+    /**
+     * Baseline: looking up the node in a set of model nodes, over all nodes of the call graph.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void modelSetContains(Nodes nodes, Blackhole blackhole) {
+        for (CGNode n : nodes.nodes) blackhole.consume(nodes.models.contains(n));
+    }
+}
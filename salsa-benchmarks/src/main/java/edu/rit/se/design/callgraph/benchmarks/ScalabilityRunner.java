@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.benchmarks;
+
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilder;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilderCancelException;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import edu.rit.se.design.callgraph.analysis.AbstractSerializationCallGraphBuilder;
+import edu.rit.se.design.callgraph.analysis.SerializationSolverMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+
+import static edu.rit.se.design.callgraph.util.AnalysisUtils.*;
+
+/**
+ * Builds call graphs for synthetic workloads of increasing size (see {@link WorkloadGenerator}) and saves
+ * how the call graph construction (and each phase of Salsa's solver) scales as a CSV file.
+ * <p>
+ * Usage: ScalabilityRunner [output csv] [comma-separated number of classes] [comma-separated builders]
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class ScalabilityRunner {
+    private static final String DEFAULT_OUTPUT = "scalability.csv";
+    private static final String DEFAULT_SIZES = "100,250,500,1000,2500,5000";
+    private static final String DEFAULT_BUILDERS = "SALSA_0_1_CFA,WALA_0_1_CFA";
+
+    public static void main(String[] args) throws IOException, ClassHierarchyException, CallGraphBuilderCancelException {
+        File output = new File(args.length > 0 ? args[0] : DEFAULT_OUTPUT);
+        String[] sizes = (args.length > 1 ? args[1] : DEFAULT_SIZES).split(",");
+        String[] builders = (args.length > 2 ? args[2] : DEFAULT_BUILDERS).split(",");
+
+        File exclusions = BenchmarkSubjects.extractExclusions();
+        File workDir = Files.createTempDirectory("salsa-workloads").toFile();
+        try (PrintWriter csv = new PrintWriter(output)) {
+            csv.println("builder,classes,callSites,nodes,edges,totalMs,delegateMs,handlerMs,iterations,modelStatements");
+            for (String size : sizes) {
+                WorkloadGenerator generator = new WorkloadGenerator(Integer.parseInt(size.trim()));
+                File jar = generator.generate(new File(workDir, "workload-" + generator.getNumberOfClasses() + ".jar"));
+
+                for (String builderName : builders) {
+                    BenchmarkedBuilder builderType = BenchmarkedBuilder.valueOf(builderName.trim());
+                    // a fresh hierarchy per builder, so that no builder benefits from what an earlier one resolved
+                    AnalysisScope scope = makeAnalysisScope(jar.getAbsolutePath(), exclusions);
+                    IClassHierarchy cha = makeIClassHierarchy(scope);
+                    AnalysisOptions options = makeAnalysisOptions(scope, cha);
+                    CallGraphBuilder builder = builderType.make(scope, options, makeAnalysisCache(), cha);
+                    long begin = System.nanoTime();
+                    CallGraph cg = builder.makeCallGraph(options, null);
+                    long totalMs = (System.nanoTime() - begin) / 1_000_000L;
+
+                    long edges = 0;
+                    for (CGNode n : cg) edges += cg.getSuccNodeCount(n);
+                    SerializationSolverMetrics metrics = builder instanceof AbstractSerializationCallGraphBuilder ?
+                            ((AbstractSerializationCallGraphBuilder) builder).getSolverMetrics() : null;
+                    csv.printf("%s,%d,%d,%d,%d,%d,%d,%d,%d,%d%n", builderType, generator.getNumberOfClasses(), generator.getNumberOfCallSites(),
+                            cg.getNumberOfNodes(), edges, totalMs,
+                            metrics == null ? 0 : metrics.getDelegateNanos() / 1_000_000L,
+                            metrics == null ? 0 : metrics.getHandlerNanos() / 1_000_000L,
+                            metrics == null ? 0 : metrics.getNumberOfIterations(),
+                            metrics == null ? 0 : metrics.getModelStatementsAdded());
+                    csv.flush();
+                    System.out.printf("%s\t%d classes\t%d ms%n", builderType, generator.getNumberOfClasses(), totalMs);
+                }
+                jar.delete();
+            }
+        }
+        workDir.delete();
+        System.out.println("Results saved at " + output.getAbsolutePath());
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.benchmarks;
+
+import javassist.*;
+import javassist.bytecode.ClassFile;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Generates synthetic, serialization-heavy programs used for scalability experiments.
+ * <p>
+ * A workload has {@code numberOfClasses} serializable classes ({@code gen.Node0}, {@code gen.Node1}, ...) grouped in chains of
+ * {@code fieldDepth} classes, where each class has a field whose type is the next class in its chain.
+ * Classes may also have collection-typed fields and serialization callbacks ({@code readObject}, {@code writeObject}, {@code readResolve}).
+ * The main class ({@code gen.Main}) has {@code numberOfCallSites} methods that serialize an object, deserialize it back and downcast it.
+ * Without serialization, these methods allocate the object and use it directly instead (i.e., the program has no call sites
+ * for {@code readObject}/{@code writeObject}).
+ * The same parameters (and seed) always produce the same program.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class WorkloadGenerator {
+
+    public static final String PACKAGE = "gen";
+    public static final String MAIN_CLASS = PACKAGE + ".Main";
+
+    private int numberOfClasses = 100;
+    private int fieldDepth = 3;
+    private int collectionFields = 1;
+    private double callbackRatio = 0.5;
+    private int numberOfCallSites = 10;
+    private boolean serialization = true;
+    private long seed = 0;
+
+    public WorkloadGenerator() {
+    }
+
+    public WorkloadGenerator(int numberOfClasses) {
+        setNumberOfClasses(numberOfClasses);
+        setNumberOfCallSites(Math.max(1, numberOfClasses / 10));
+    }
+
+    //<editor-fold desc="Getters and setters">
+    public int getNumberOfClasses() {
+        return numberOfClasses;
+    }
+
+    public void setNumberOfClasses(int numberOfClasses) {
+        if (numberOfClasses < 1) throw new IllegalArgumentException("numberOfClasses must be at least 1");
+        this.numberOfClasses = numberOfClasses;
+    }
+
+    public int getFieldDepth() {
+        return fieldDepth;
+    }
+
+    public void setFieldDepth(int fieldDepth) {
+        if (fieldDepth < 1) throw new IllegalArgumentException("fieldDepth must be at least 1");
+        this.fieldDepth = fieldDepth;
+    }
+
+    public int getCollectionFields() {
+        return collectionFields;
+    }
+
+    public void setCollectionFields(int collectionFields) {
+        if (collectionFields < 0) throw new IllegalArgumentException("collectionFields cannot be negative");
+        this.collectionFields = collectionFields;
+    }
+
+    public double getCallbackRatio() {
+        return callbackRatio;
+    }
+
+    public void setCallbackRatio(double callbackRatio) {
+        if (callbackRatio < 0 || callbackRatio > 1) throw new IllegalArgumentException("callbackRatio must be within [0,1]");
+        this.callbackRatio = callbackRatio;
+    }
+
+    public int getNumberOfCallSites() {
+        return numberOfCallSites;
+    }
+
+    public void setNumberOfCallSites(int numberOfCallSites) {
+        if (numberOfCallSites < 1) throw new IllegalArgumentException("numberOfCallSites must be at least 1");
+        this.numberOfCallSites = numberOfCallSites;
+    }
+
+    public boolean isSerialization() {
+        return serialization;
+    }
+
+    public void setSerialization(boolean serialization) {
+        this.serialization = serialization;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    //</editor-fold>
+
+    /**
+     * Generates the workload and saves it as a jar file.
+     *
+     * @param jarFile output jar
+     * @return the jar file
+     */
+    public File generate(File jarFile) throws IOException {
+        try {
+            List<CtClass> classes = generateClasses();
+            Manifest manifest = new Manifest();
+            manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, MAIN_CLASS);
+            try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile), manifest)) {
+                for (CtClass c : classes) {
+                    out.putNextEntry(new JarEntry(c.getName().replace('.', '/') + ".class"));
+                    out.write(c.toBytecode());
+                    out.closeEntry();
+                    c.detach();
+                }
+            }
+            return jarFile;
+        } catch (CannotCompileException | NotFoundException e) {
+            throw new IOException("Could not generate workload " + this, e);
+        }
+    }
+
+    private List<CtClass> generateClasses() throws CannotCompileException, NotFoundException {
+        // a fresh pool, so that generated classes never leak across workloads
+        ClassPool pool = new ClassPool(true);
+        Random random = new Random(seed);
+        CtClass serializable = pool.get("java.io.Serializable");
+
+        // classes are declared before their members, because fields and method bodies refer to other generated classes
+        CtClass[] nodes = new CtClass[numberOfClasses];
+        for (int i = 0; i < numberOfClasses; i++) {
+            nodes[i] = pool.makeClass(nodeName(i));
+            nodes[i].addInterface(serializable);
+            nodes[i].getClassFile().setMajorVersion(ClassFile.JAVA_8);
+            nodes[i].addConstructor(CtNewConstructor.defaultConstructor(nodes[i]));
+            nodes[i].addMethod(CtNewMethod.make("public void process() { }", nodes[i]));
+        }
+
+        for (int i = 0; i < numberOfClasses; i++) {
+            CtClass node = nodes[i];
+            boolean hasChild = (i % fieldDepth) < fieldDepth - 1 && i + 1 < numberOfClasses;
+            StringBuilder body = new StringBuilder("{");
+            if (hasChild) {
+                node.addField(new CtField(nodes[i + 1], "child", node));
+                body.append("if (child == null) child = new ").append(nodeName(i + 1)).append("();");
+                body.append("child.process();");
+            }
+            for (int j = 0; j < collectionFields; j++) {
+                String field = "items" + j;
+                // alternates between lists and maps
+                String type = j % 2 == 0 ? "java.util.ArrayList" : "java.util.HashMap";
+                node.addField(CtField.make("private " + type + " " + field + " = new " + type + "();", node));
+                String element = "new " + nodeName(random.nextInt(numberOfClasses)) + "()";
+                body.append(j % 2 == 0 ? field + ".add(" + element + ");" : field + ".put(\"k\", " + element + ");");
+            }
+            body.append("}");
+            node.getDeclaredMethod("process").setBody(body.toString());
+
+            if (random.nextDouble() < callbackRatio) addCallbacks(node, random);
+        }
+
+        CtClass main = pool.makeClass(MAIN_CLASS);
+        main.getClassFile().setMajorVersion(ClassFile.JAVA_8);
+        StringBuilder mainBody = new StringBuilder("{");
+        for (int j = 0; j < numberOfCallSites; j++) {
+            String target = nodeName(random.nextInt(numberOfClasses));
+            if (!serialization) {
+                main.addMethod(CtNewMethod.make(
+                        "private static void site" + j + "() throws Exception {" +
+                                target + " o = new " + target + "();" +
+                                "o.process();" +
+                                "}", main));
+                mainBody.append("site").append(j).append("();");
+                continue;
+            }
+            main.addMethod(CtNewMethod.make(
+                    "private static void site" + j + "() throws Exception {" +
+                            "java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();" +
+                            "java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes);" +
+                            "out.writeObject(new " + target + "());" +
+                            "out.close();" +
+                            "java.io.ObjectInputStream in = new java.io.ObjectInputStream(new java.io.ByteArrayInputStream(bytes.toByteArray()));" +
+                            target + " o = (" + target + ") in.readObject();" +
+                            "in.close();" +
+                            "o.process();" +
+                            "}", main));
+            mainBody.append("site").append(j).append("();");
+        }
+        mainBody.append("}");
+        main.addMethod(CtNewMethod.make("public static void main(String[] args) throws Exception " + mainBody, main));
+
+        List<CtClass> classes = new ArrayList<>(numberOfClasses + 1);
+        for (CtClass node : nodes) classes.add(node);
+        classes.add(main);
+        return classes;
+    }
+
+    /**
+     * Adds readObject/writeObject (and randomly readResolve) to a class.
+     */
+    private void addCallbacks(CtClass node, Random random) throws CannotCompileException {
+        node.addMethod(CtNewMethod.make(
+                "private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {" +
+                        "in.defaultReadObject();" +
+                        "this.process();" +
+                        "}", node));
+        node.addMethod(CtNewMethod.make(
+                "private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {" +
+                        "out.defaultWriteObject();" +
+                        "}", node));
+        if (random.nextBoolean()) {
+            node.addMethod(CtNewMethod.make(
+                    "private Object readResolve() throws java.io.ObjectStreamException {" +
+                            "return new " + nodeName(random.nextInt(numberOfClasses)) + "();" +
+                            "}", node));
+        }
+    }
+
+    private static String nodeName(int i) {
+        return PACKAGE + ".Node" + i;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkloadGenerator{" +
+                "numberOfClasses=" + numberOfClasses +
+                ", fieldDepth=" + fieldDepth +
+                ", collectionFields=" + collectionFields +
+                ", callbackRatio=" + callbackRatio +
+                ", numberOfCallSites=" + numberOfCallSites +
+                ", serialization=" + serialization +
+                ", seed=" + seed +
+                '}';
+    }
+}
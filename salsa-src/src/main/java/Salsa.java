@@ -18,19 +18,39 @@ import com.ibm.wala.ipa.callgraph.propagation.PointerKey;
 import com.ibm.wala.ipa.cha.ClassHierarchyException;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
 import com.ibm.wala.util.MonitorUtil;
+import edu.rit.se.design.callgraph.analysis.AbstractSerializationCallGraphBuilder;
+import edu.rit.se.design.callgraph.analysis.AnalysisBudget;
 import edu.rit.se.design.callgraph.analysis.PointerAnalysisPolicy;
+import edu.rit.se.design.callgraph.analysis.SalsaOptions;
+import edu.rit.se.design.callgraph.analysis.SerializationSolverMetrics;
 import edu.rit.se.design.callgraph.analysis.salsa.SalsaSSAPropagationCallGraphBuilder;
 import edu.rit.se.design.callgraph.analysis.salsa.SalsaZeroXCallGraphBuilder;
+import edu.rit.se.design.callgraph.cast.CastFinderType;
+import edu.rit.se.design.callgraph.event.AnalysisEvent;
+import edu.rit.se.design.callgraph.event.AnalysisEventListener;
+import edu.rit.se.design.callgraph.event.JsonLinesEventWriter;
 import edu.rit.se.design.callgraph.model.MethodModel;
+import edu.rit.se.design.callgraph.serializer.BinaryCallGraphSerializer;
 import edu.rit.se.design.callgraph.serializer.DotCallGraphSerializer;
+import edu.rit.se.design.callgraph.serializer.JDynCallGraphSerializer;
+import edu.rit.se.design.callgraph.serializer.JavaCallGraphSerializer;
 import edu.rit.se.design.callgraph.serializer.JsonJcgSerializer;
+import edu.rit.se.design.callgraph.util.SharedPrimordialClassLoaderFactory;
 import edu.rit.se.design.dodo.utils.debug.DodoLogger;
 import edu.rit.se.design.dodo.utils.viz.ProjectAnalysisViewer;
 import org.apache.commons.cli.*;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Set;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -52,8 +72,20 @@ public class Salsa {
     public static final String OUTPUT = "output";
     public static final String JAR = "jar";
     public static final String ANALYSIS = "analysis"; // possible values: x-CFA, 0-x-CFA, or 0-x-Container-CFA
+    public static final String CAST_FINDER = "cast-finder"; // possible values: slicer, def-use
+    public static final String SOLVER_METRICS = "solver-metrics";
+    public static final String CACHE_DIR = "cache-dir";
+    public static final String COMPRESS = "compress";
+    public static final String OUTPUT_THREADS = "output-threads";
+    public static final String BATCH = "batch";
+    public static final String BATCH_THREADS = "batch-threads";
+    public static final String TIME_BUDGET = "time-budget";
+    public static final String HEAP_BUDGET = "heap-budget";
+    public static final String EVENTS = "events";
     // default values for args
     public static final String DEFAULT_EXCLUSIONS_FILE = "exclusions.txt";
+    public static final String BATCH_METRICS_FILE = "batch-metrics.csv";
+    public static final String BUDGET_LIMITED_SUFFIX = ".budget-limited";
     // for parsing the PA algorithm
     private static final Pattern p = Pattern.compile("((\\d+)-CFA)|(0-(\\d+)-CFA)|(0-(\\d+)-Container-CFA)");
 
@@ -61,6 +93,14 @@ public class Salsa {
         Logger logger = DodoLogger.getLogger(Salsa.class, false);
 
         CommandLine cmd = setUpCommandLine(Salsa.class, args);
+        JsonLinesEventWriter eventWriter = cmd.hasOption(EVENTS) ? new JsonLinesEventWriter(new File(cmd.getOptionValue(EVENTS))) : null;
+        AnalysisEventListener events = eventWriter != null ? eventWriter : AnalysisEventListener.NONE;
+        if (cmd.hasOption(BATCH)) {
+            runBatch(cmd, events, logger);
+            if (eventWriter != null) eventWriter.close();
+            return;
+        }
+        if (!cmd.hasOption(JAR)) throw new IllegalArgumentException("Either --" + JAR + " or --" + BATCH + " must be provided");
         String jarFilePath = cmd.getOptionValue(JAR);
         String format = cmd.getOptionValue(FORMAT);
         File outputFile = new File(cmd.getOptionValue(OUTPUT));
@@ -68,6 +108,10 @@ public class Salsa {
         boolean showUi = cmd.hasOption(VIEW_UI);
         boolean printMethods = cmd.hasOption(PRINT_MODELS);
         PointerAnalysisPolicy paPolicy = parsePointerAnalysisPolicy(cmd.getOptionValue(ANALYSIS));
+        CastFinderType castFinder = cmd.hasOption(CAST_FINDER) ? CastFinderType.parse(cmd.getOptionValue(CAST_FINDER)) : CastFinderType.SLICER;
+        File solverMetricsFile = cmd.hasOption(SOLVER_METRICS) ? new File(cmd.getOptionValue(SOLVER_METRICS)) : null;
+        boolean compress = cmd.hasOption(COMPRESS);
+        int outputThreads = cmd.hasOption(OUTPUT_THREADS) ? Integer.parseInt(cmd.getOptionValue(OUTPUT_THREADS)) : 1;
 
 
         long start = System.currentTimeMillis();
@@ -76,23 +120,40 @@ public class Salsa {
         logger.info("\tOutput: " + outputFile);
         logger.info("\tFormat: " + format);
         logger.info("\t2nd Policy: " + paPolicy);
+        logger.info("\tCast finder: " + castFinder);
 //        logger.info("\tAlgorithm: " + useTaintBasedAlgorithm);
 
 
         // Basic Variables
         File exclusionFile = new File(exclusions);
+        long phaseStart = System.nanoTime();
         AnalysisScope scope = makeAnalysisScope(jarFilePath, exclusionFile);
+        events.onEvent(new AnalysisEvent(AnalysisEvent.SCOPE, jarFilePath, phaseStart, System.nanoTime()));
+        phaseStart = System.nanoTime();
         IClassHierarchy cha = makeIClassHierarchy(scope);
+        events.onEvent(new AnalysisEvent(AnalysisEvent.CLASS_HIERARCHY, jarFilePath, phaseStart, System.nanoTime())
+                .withCounter(AnalysisEvent.CLASSES, cha.getNumberOfClasses()));
         AnalysisOptions options = makeAnalysisOptions(scope, cha);
         AnalysisCache cache = makeAnalysisCache();
 
         // call graph construction
         CallGraphBuilder builder = SalsaZeroXCallGraphBuilder.make(scope, options, cache, cha, paPolicy);
-        CallGraph cg = (CallGraph) builder.makeCallGraph(options, new CustomMonitor(logger));
+        configureSalsaOptions(((AbstractSerializationCallGraphBuilder) builder).getSalsaOptions(), cmd);
+        ((AbstractSerializationCallGraphBuilder) builder).setEventListener(events.forSubject(jarFilePath));
+        phaseStart = System.nanoTime();
+        CallGraph cg = buildCallGraph(builder, options, new CustomMonitor(logger));
         long end = System.currentTimeMillis();
+        events.onEvent(makeCallGraphEvent(cg, jarFilePath, phaseStart));
 
         logger.info("Call graph computed in " + ((end - start) / 1000L) + " seconds");
 
+        // flags call graphs that may be incomplete because the analysis budget was exceeded
+        flagBudgetLimited(builder, outputFile, logger);
+
+        // Saves the metrics of the points-to solver
+        if (solverMetricsFile != null)
+            ((AbstractSerializationCallGraphBuilder) builder).getSolverMetrics().save(solverMetricsFile);
+
         // Visualize call graph in Java Swing
         if (showUi) {
             Set<PointerKey> deserializedObjects = 
@@ -115,17 +176,226 @@ public class Salsa {
 
 
         // saving results
-        switch (OutputFormat.valueOf(format.toUpperCase())) {
+        saveCallGraph(cg, OutputFormat.valueOf(format.toUpperCase()), outputFile, compress, outputThreads, events.forSubject(jarFilePath));
+        if (eventWriter != null) eventWriter.close();
+    }
+
+    /**
+     * Builds the call graph; when the analysis budget is exhausted, the partial call graph is returned.
+     */
+    static CallGraph buildCallGraph(CallGraphBuilder builder, AnalysisOptions options, MonitorUtil.IProgressMonitor monitor) throws CallGraphBuilderCancelException {
+        try {
+            return builder.makeCallGraph(options, monitor);
+        } catch (CallGraphBuilderCancelException e) {
+            AnalysisBudget budget = ((AbstractSerializationCallGraphBuilder) builder).getBudget();
+            if (budget == null || !budget.isCanceled()) throw e;
+            return e.getPartialCallGraph();
+        }
+    }
+
+    /**
+     * Writes a file next to the output ({@link #BUDGET_LIMITED_SUFFIX}) if the call graph may be incomplete because the analysis budget
+     * was exceeded; otherwise, it removes such file left by a previous run.
+     *
+     * @return true if the call graph was limited by the budget
+     */
+    static boolean flagBudgetLimited(CallGraphBuilder builder, File outputFile, Logger logger) throws IOException {
+        AnalysisBudget budget = ((AbstractSerializationCallGraphBuilder) builder).getBudget();
+        File budgetLimitedFile = new File(outputFile.getPath() + BUDGET_LIMITED_SUFFIX);
+        if (budget != null && budget.isBudgetLimited()) {
+            logger.warning("The analysis budget was exceeded, the call graph of " + outputFile + " may be incomplete: " + budget);
+            FileUtils.write(budgetLimitedFile, budget.toString() + "\n", StandardCharsets.UTF_8);
+            return true;
+        }
+        FileUtils.deleteQuietly(budgetLimitedFile);
+        return false;
+    }
+
+    /**
+     * Sets the serialization-related options given in the command line.
+     */
+    private static void configureSalsaOptions(SalsaOptions salsaOptions, CommandLine cmd) {
+        salsaOptions.setCastFinderType(cmd.hasOption(CAST_FINDER) ? CastFinderType.parse(cmd.getOptionValue(CAST_FINDER)) : CastFinderType.SLICER);
+        salsaOptions.setCacheDir(cmd.hasOption(CACHE_DIR) ? new File(cmd.getOptionValue(CACHE_DIR)) : null);
+        salsaOptions.setExclusionsFile(new File(cmd.hasOption(EXCLUSIONS) ? cmd.getOptionValue(EXCLUSIONS) : Salsa.class.getClassLoader().getResource(DEFAULT_EXCLUSIONS_FILE).toString()));
+        salsaOptions.setTimeBudgetMillis(cmd.hasOption(TIME_BUDGET) ? Long.parseLong(cmd.getOptionValue(TIME_BUDGET)) * 1000L : 0);
+        salsaOptions.setHeapBudgetBytes(cmd.hasOption(HEAP_BUDGET) ? Long.parseLong(cmd.getOptionValue(HEAP_BUDGET)) * 1024L * 1024L : 0);
+    }
+
+    /**
+     * @return an event for the call graph construction, with the size of the call graph
+     */
+    private static AnalysisEvent makeCallGraphEvent(CallGraph cg, String jar, long startNanos) {
+        long end = System.nanoTime();
+        long edges = 0;
+        for (CGNode n : cg) edges += cg.getSuccNodeCount(n);
+        return new AnalysisEvent(AnalysisEvent.CALL_GRAPH, jar, startNanos, end)
+                .withCounter(AnalysisEvent.CG_NODES, cg.getNumberOfNodes())
+                .withCounter(AnalysisEvent.CG_EDGES, edges);
+    }
+
+    static void saveCallGraph(CallGraph cg, OutputFormat format, File outputFile, boolean compress, int outputThreads) {
+        saveCallGraph(cg, format, outputFile, compress, outputThreads, AnalysisEventListener.NONE);
+    }
+
+    /**
+     * Saves the call graph and emits a {@link AnalysisEvent#SERIALIZER} event (whose counters include the size of the output file).
+     * The event has no subject (listeners tag it with the jar, see {@link AnalysisEventListener#forSubject(String)}); the file is its output.
+     */
+    static void saveCallGraph(CallGraph cg, OutputFormat format, File outputFile, boolean compress, int outputThreads, AnalysisEventListener events) {
+        long start = System.nanoTime();
+        writeCallGraph(cg, format, outputFile, compress, outputThreads);
+        events.onEvent(new AnalysisEvent(AnalysisEvent.SERIALIZER, null, start, System.nanoTime())
+                .withOutput(outputFile.getPath())
+                .withCounter(AnalysisEvent.CG_NODES, cg.getNumberOfNodes())
+                .withCounter(AnalysisEvent.OUTPUT_BYTES, outputFile.length()));
+    }
+
+    private static void writeCallGraph(CallGraph cg, OutputFormat format, File outputFile, boolean compress, int outputThreads) {
+        switch (format) {
             case DOT:
                 new DotCallGraphSerializer().save(cg, outputFile);
                 break;
             case JSON:
-                new JsonJcgSerializer().save(cg, outputFile);
+                JsonJcgSerializer jsonSerializer = new JsonJcgSerializer();
+                jsonSerializer.setOutputThreads(outputThreads);
+                jsonSerializer.save(cg, outputFile);
+                break;
+            case JAVACG:
+                JavaCallGraphSerializer javaCgSerializer = new JavaCallGraphSerializer(compress);
+                javaCgSerializer.setOutputThreads(outputThreads);
+                javaCgSerializer.save(cg, outputFile);
+                break;
+            case JDYN:
+                JDynCallGraphSerializer jdynSerializer = new JDynCallGraphSerializer(compress);
+                jdynSerializer.setOutputThreads(outputThreads);
+                jdynSerializer.save(cg, outputFile);
+                break;
+            case BIN:
+                new BinaryCallGraphSerializer().save(cg, outputFile);
+        }
+    }
+
+
+    //<editor-fold desc="Batch mode">
+
+    /**
+     * Analyzes all jars listed in a manifest file (one jar per line; blank lines and lines starting with # are ignored).
+     * The jars are analyzed by a pool of {@link #BATCH_THREADS} workers. Each worker loads the JRE (Primordial and Extension loaders)
+     * once and shares it across the jars it analyzes; WALA's classes are not thread-safe, so they are never shared across workers.
+     * The output option is a directory where each jar's call graph is saved along with a CSV file ({@link #BATCH_METRICS_FILE})
+     * with one row per jar. If {@link #SOLVER_METRICS} is given, the solver metrics of each jar are saved in this directory too,
+     * in a file named after the jar and the option's file name (e.g., app-metrics.csv).
+     */
+    private static void runBatch(CommandLine cmd, AnalysisEventListener events, Logger logger) throws IOException, ClassHierarchyException {
+        File manifest = new File(cmd.getOptionValue(BATCH));
+        File outputDir = new File(cmd.getOptionValue(OUTPUT));
+        OutputFormat format = OutputFormat.valueOf(cmd.getOptionValue(FORMAT).toUpperCase());
+        File exclusionFile = new File(cmd.hasOption(EXCLUSIONS) ? cmd.getOptionValue(EXCLUSIONS) : Salsa.class.getClassLoader().getResource(DEFAULT_EXCLUSIONS_FILE).toString());
+        PointerAnalysisPolicy paPolicy = parsePointerAnalysisPolicy(cmd.getOptionValue(ANALYSIS));
+        boolean compress = cmd.hasOption(COMPRESS);
+        int outputThreads = cmd.hasOption(OUTPUT_THREADS) ? Integer.parseInt(cmd.getOptionValue(OUTPUT_THREADS)) : 1;
+        int batchThreads = cmd.hasOption(BATCH_THREADS) ? Integer.parseInt(cmd.getOptionValue(BATCH_THREADS)) : 1;
+        if (batchThreads < 1) throw new IllegalArgumentException(BATCH_THREADS + " must be at least 1");
+
+        List<String> jars = new ArrayList<>();
+        for (String line : FileUtils.readLines(manifest, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) jars.add(line);
+        }
+        logger.info("Starting batch analysis of " + jars.size() + " jars with " + batchThreads + " workers");
+        if (jars.isEmpty()) return;
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) throw new IOException("Could not create output directory " + outputDir);
+
+        // JRE loaders of each worker (loaded by the first jar the worker analyzes)
+        ThreadLocal<SharedPrimordialClassLoaderFactory> roots = new ThreadLocal<>();
+
+        // one output file per jar (names are disambiguated by their position in the manifest)
+        Set<String> outputNames = new HashSet<>();
+        ExecutorService pool = Executors.newFixedThreadPool(batchThreads);
+        List<Future<String>> rows = new ArrayList<>();
+        for (int i = 0; i < jars.size(); i++) {
+            String jar = jars.get(i);
+            String name = FilenameUtils.getBaseName(jar);
+            if (!outputNames.add(name)) name = name + "-" + i;
+            File outputFile = new File(outputDir, name + "." + format.getExtension() + (compress && format.isCompressible() ? ".gz" : ""));
+            File solverMetricsFile = cmd.hasOption(SOLVER_METRICS) ? new File(outputDir, name + "-" + new File(cmd.getOptionValue(SOLVER_METRICS)).getName()) : null;
+            rows.add(pool.submit(() -> analyzeInBatch(jar, exclusionFile, roots, paPolicy, cmd, format, outputFile, solverMetricsFile, compress, outputThreads, events.forSubject(jar), logger)));
+        }
+        pool.shutdown();
+
+        File metricsFile = new File(outputDir, BATCH_METRICS_FILE);
+        try (PrintWriter metrics = new PrintWriter(metricsFile, StandardCharsets.UTF_8.name())) {
+            metrics.println("jar,status,seconds,nodes,edges,iterations,delegateMs,handlerMs,output,error");
+            for (Future<String> row : rows) {
+                metrics.println(row.get());
+                metrics.flush();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            logger.warning("Batch analysis interrupted; metrics of the jars analyzed so far saved at " + metricsFile);
+            return;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        logger.info("Batch analysis finished; metrics saved at " + metricsFile);
+    }
+
+    /**
+     * Analyzes one jar of a batch; failures are reported in the returned row rather than thrown.
+     * Call graphs cut short by the analysis budget are saved (and flagged) as in single-jar mode, with the BUDGET_LIMITED status.
+     *
+     * @return a CSV row with the metrics for this jar
+     */
+    private static String analyzeInBatch(String jar, File exclusionFile, ThreadLocal<SharedPrimordialClassLoaderFactory> roots, PointerAnalysisPolicy paPolicy,
+                                         CommandLine cmd, OutputFormat format, File outputFile, File solverMetricsFile, boolean compress, int outputThreads,
+                                         AnalysisEventListener events, Logger logger) {
+        long start = System.currentTimeMillis();
+        try {
+            long phaseStart = System.nanoTime();
+            AnalysisScope scope = makeAnalysisScope(jar, exclusionFile);
+            events.onEvent(new AnalysisEvent(AnalysisEvent.SCOPE, jar, phaseStart, System.nanoTime()));
+            phaseStart = System.nanoTime();
+            SharedPrimordialClassLoaderFactory root = roots.get();
+            if (root == null) {
+                root = SharedPrimordialClassLoaderFactory.makeRoot(exclusionFile);
+                roots.set(root);
+            }
+            IClassHierarchy cha = makeIClassHierarchy(scope, new SharedPrimordialClassLoaderFactory(scope.getExclusions(), root));
+            events.onEvent(new AnalysisEvent(AnalysisEvent.CLASS_HIERARCHY, jar, phaseStart, System.nanoTime())
+                    .withCounter(AnalysisEvent.CLASSES, cha.getNumberOfClasses()));
+            AnalysisOptions options = makeAnalysisOptions(scope, cha);
+            CallGraphBuilder builder = SalsaZeroXCallGraphBuilder.make(scope, options, makeAnalysisCache(), cha, paPolicy);
+            configureSalsaOptions(((AbstractSerializationCallGraphBuilder) builder).getSalsaOptions(), cmd);
+            ((AbstractSerializationCallGraphBuilder) builder).setEventListener(events);
+            phaseStart = System.nanoTime();
+            CallGraph cg = buildCallGraph(builder, options, null);
+            double seconds = (System.currentTimeMillis() - start) / 1000.0;
+            events.onEvent(makeCallGraphEvent(cg, jar, phaseStart));
+            saveCallGraph(cg, format, outputFile, compress, outputThreads, events);
+            boolean budgetLimited = flagBudgetLimited(builder, outputFile, logger);
+
+            long edges = 0;
+            for (CGNode n : cg) edges += cg.getSuccNodeCount(n);
+            SerializationSolverMetrics solverMetrics = ((AbstractSerializationCallGraphBuilder) builder).getSolverMetrics();
+            if (solverMetricsFile != null) solverMetrics.save(solverMetricsFile);
+            logger.info("Analyzed " + jar + " in " + seconds + " seconds");
+            return String.format("%s,%s,%.3f,%d,%d,%d,%d,%d,%s,", csvValue(jar), budgetLimited ? "BUDGET_LIMITED" : "OK", seconds, cg.getNumberOfNodes(), edges,
+                    solverMetrics.getNumberOfIterations(), solverMetrics.getDelegateNanos() / 1_000_000L,
+                    solverMetrics.getHandlerNanos() / 1_000_000L, csvValue(outputFile.getPath()));
+        } catch (Exception | StackOverflowError e) {
+            logger.severe("Failed to analyze " + jar + ": " + e);
+            return String.format("%s,FAILED,%.3f,,,,,,,%s", csvValue(jar), (System.currentTimeMillis() - start) / 1000.0, csvValue(e.toString()));
         }
     }
 
+    private static String csvValue(String value) {
+        return "\"" + value.replace("\"", "\"\"").replace('\n', ' ') + "\"";
+    }
+    //</editor-fold>
 
-    private static PointerAnalysisPolicy parsePointerAnalysisPolicy(String analysis) {
+    static PointerAnalysisPolicy parsePointerAnalysisPolicy(String analysis) {
         Matcher matcher = p.matcher(analysis.trim());
         if (!matcher.find()) throw new IllegalArgumentException("Unknown analysis policy " + analysis);
 
@@ -153,13 +423,13 @@ public class Salsa {
     private static CommandLine setUpCommandLine(Class cliClass, String[] args) {
 
 
-        Option jar = new Option("j", JAR, true, "Path to the project's JAR file");
-        jar.setRequired(true);
+        Option jar = new Option("j", JAR, true, "Path to the project's JAR file (required unless --" + BATCH + " is used)");
+        jar.setRequired(false);
 
-        Option output = new Option(OUTPUT.substring(0, 1), OUTPUT, true, "Path to the output file with the serialized call graph");
+        Option output = new Option(OUTPUT.substring(0, 1), OUTPUT, true, "Path to the output file with the serialized call graph (output directory with --" + BATCH + ")");
         output.setRequired(true);
 
-        Option formatOpt = new Option(FORMAT.substring(0, 1), FORMAT, true, "Output format (possible values: json, csv [default = json])");
+        Option formatOpt = new Option(FORMAT.substring(0, 1), FORMAT, true, "Output format (possible values: json, dot, javacg, jdyn, bin [default = json])");
         formatOpt.setType(OutputFormat.class);
         formatOpt.setRequired(true);
 
@@ -178,6 +448,36 @@ public class Salsa {
         Option paPolicy = new Option(ANALYSIS.substring(0, 1), ANALYSIS, true, "Pointer analysis choice (n-CFA, 0-n-CFA, 0-n-Container-CFA)");
         paPolicy.setRequired(true);
 
+        Option castFinderOpt = new Option(null, CAST_FINDER, true, "Strategy for finding downcasts of deserialized objects (possible values: slicer, def-use [default = slicer])");
+        castFinderOpt.setRequired(false);
+
+        Option solverMetricsOpt = new Option(null, SOLVER_METRICS, true, "Path to a file where the points-to solver metrics are saved (CSV if it ends with .csv, JSON otherwise)");
+        solverMetricsOpt.setRequired(false);
+
+        Option cacheDirOpt = new Option(null, CACHE_DIR, true, "Directory for caching data computed for a classpath across runs");
+        cacheDirOpt.setRequired(false);
+
+        Option compressOpt = new Option(null, COMPRESS, false, "Gzip-compresses the output file (javacg and jdyn formats)");
+        compressOpt.setRequired(false);
+
+        Option outputThreadsOpt = new Option(null, OUTPUT_THREADS, true, "Number of threads for writing the output file (json, javacg and jdyn formats) [default = 1]. With more than one thread, the json format keeps the call sites of all reachable methods in memory until they are written");
+        outputThreadsOpt.setRequired(false);
+
+        Option batchOpt = new Option(null, BATCH, true, "Path to a manifest file listing the JAR files to be analyzed (one per line)");
+        batchOpt.setRequired(false);
+
+        Option batchThreadsOpt = new Option(null, BATCH_THREADS, true, "Number of JAR files analyzed in parallel in batch mode [default = 1]");
+        batchThreadsOpt.setRequired(false);
+
+        Option timeBudgetOpt = new Option(null, TIME_BUDGET, true, "Wall-clock budget (in seconds) for building the call graph; the analysis is degraded when it is exceeded [default = unlimited]");
+        timeBudgetOpt.setRequired(false);
+
+        Option heapBudgetOpt = new Option(null, HEAP_BUDGET, true, "Live heap budget (in MB, measured after garbage collection) for building the call graph; the analysis is degraded when it is exceeded [default = unlimited]");
+        heapBudgetOpt.setRequired(false);
+
+        Option eventsOpt = new Option(null, EVENTS, true, "Path to a file where timing events (scope, class hierarchy, solver rounds, serializer) are written as JSON lines");
+        eventsOpt.setRequired(false);
+
 
         DefaultParser parser = new DefaultParser();
         Options options = new Options();
@@ -189,6 +489,16 @@ public class Salsa {
         options.addOption(printMethodModels);
         options.addOption(exclusionFile);
         options.addOption(paPolicy);
+        options.addOption(castFinderOpt);
+        options.addOption(solverMetricsOpt);
+        options.addOption(cacheDirOpt);
+        options.addOption(compressOpt);
+        options.addOption(outputThreadsOpt);
+        options.addOption(batchOpt);
+        options.addOption(batchThreadsOpt);
+        options.addOption(timeBudgetOpt);
+        options.addOption(heapBudgetOpt);
+        options.addOption(eventsOpt);
 
 
         try {
@@ -213,7 +523,26 @@ public class Salsa {
     }
 
     public enum OutputFormat {
-        JSON, DOT
+        JSON("json", false), DOT("dot", false), JAVACG("txt", true), JDYN("txt", true), BIN("bin", false);
+
+        private final String extension;
+        private final boolean compressible;
+
+        OutputFormat(String extension, boolean compressible) {
+            this.extension = extension;
+            this.compressible = compressible;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @return whether the output can be gzip-compressed
+         */
+        public boolean isCompressible() {
+            return compressible;
+        }
     }
 
     /**
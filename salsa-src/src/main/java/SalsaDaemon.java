@@ -0,0 +1,443 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import com.ibm.wala.ipa.callgraph.*;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.util.MonitorUtil;
+import edu.rit.se.design.callgraph.analysis.AbstractSerializationCallGraphBuilder;
+import edu.rit.se.design.callgraph.analysis.SalsaOptions;
+import edu.rit.se.design.callgraph.analysis.salsa.SalsaZeroXCallGraphBuilder;
+import edu.rit.se.design.callgraph.cast.CastFinderType;
+import edu.rit.se.design.callgraph.util.SharedPrimordialClassLoaderFactory;
+import edu.rit.se.design.dodo.utils.debug.DodoLogger;
+import org.apache.commons.cli.*;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+
+import static edu.rit.se.design.callgraph.util.AnalysisUtils.*;
+
+/**
+ * Long-running Salsa process that analyzes jobs submitted through a local (loopback) socket.
+ * The JIT-compiled code, the exclusions and the JRE class loaders (see {@link SharedPrimordialClassLoaderFactory})
+ * stay warm across jobs. Each worker thread has its own JRE loaders, since WALA's classes are not thread-safe.
+ * <p>
+ * Any local user can connect to a loopback port, so every request must carry a secret token. The daemon generates it
+ * when it starts and writes it to a file only readable by its owner ({@link #TOKEN_FILE}).
+ * <p>
+ * Protocol (one JSON object per line). A client connects, sends one request and receives events until the job ends:
+ * <pre>
+ * request: {"token": "...", "id": "job1", "jar": "/path/app.jar", "analysis": "0-1-CFA", "format": "json", "output": "/path/cg.json",
+ *           "timeLimitSeconds": 600, "timeBudgetSeconds": 300, "heapBudgetMb": 4096, "castFinder": "slicer", "compress": false, "outputThreads": 1}
+ * events:  {"id": "job1", "event": "queued|rejected|started|beginTask|subTask|worked|done|finished|canceled|failed", "elapsedMs": ..., ...}
+ * </pre>
+ * A request {"token": "...", "command": "shutdown"} stops the daemon. Jobs wait in a bounded queue; when it is full, requests are rejected.
+ * Jobs are canceled when they exceed their time limit or when their client disconnects.
+ * Like in the command line, a job that exceeds its analysis budget (timeBudgetSeconds, heapBudgetMb) is degraded instead,
+ * and its (possibly incomplete) call graph is saved and flagged: the "finished" event has "budgetLimited": true.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class SalsaDaemon {
+
+    // argument names
+    public static final String PORT = "port";
+    public static final String WORKERS = "workers";
+    public static final String QUEUE_SIZE = "queue-size";
+    public static final String EXCLUSIONS = "exclusions";
+    public static final String TOKEN_FILE = "token-file";
+    public static final String CACHE_DIR = "cache-dir";
+    // default values for args
+    public static final int DEFAULT_PORT = 7655;
+    public static final int DEFAULT_QUEUE_SIZE = 16;
+    public static final String DEFAULT_TOKEN_FILE = System.getProperty("user.home") + File.separator + ".salsa" + File.separator + "daemon.token";
+
+    private final Logger logger;
+    private final File exclusionFile;
+    /**
+     * directory where data computed for a classpath is cached across jobs (null = no cache)
+     */
+    private final File cacheDir;
+    private final ThreadPoolExecutor jobs;
+    private final ExecutorService connections = Executors.newCachedThreadPool();
+    private final Gson gson = new Gson();
+    /**
+     * secret that clients must send along with their requests
+     */
+    private final byte[] token;
+    /**
+     * JRE loaders of each worker thread (created by the first job the worker runs)
+     */
+    private final ThreadLocal<SharedPrimordialClassLoaderFactory> roots = new ThreadLocal<>();
+    private volatile boolean running = true;
+
+    public SalsaDaemon(File exclusionFile, File cacheDir, int workers, int queueSize, String token, Logger logger) {
+        if (workers < 1) throw new IllegalArgumentException("workers must be at least 1");
+        if (queueSize < 1) throw new IllegalArgumentException("queueSize must be at least 1");
+        if (token == null || token.isEmpty()) throw new IllegalArgumentException("token cannot be empty");
+        this.exclusionFile = exclusionFile;
+        this.cacheDir = cacheDir;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        this.logger = logger;
+        this.jobs = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static void main(String[] args) throws IOException {
+        Logger logger = DodoLogger.getLogger(SalsaDaemon.class, false);
+        CommandLine cmd = setUpCommandLine(args);
+        int port = cmd.hasOption(PORT) ? Integer.parseInt(cmd.getOptionValue(PORT)) : DEFAULT_PORT;
+        int workers = cmd.hasOption(WORKERS) ? Integer.parseInt(cmd.getOptionValue(WORKERS)) : 1;
+        int queueSize = cmd.hasOption(QUEUE_SIZE) ? Integer.parseInt(cmd.getOptionValue(QUEUE_SIZE)) : DEFAULT_QUEUE_SIZE;
+        String exclusions = cmd.hasOption(EXCLUSIONS) ? cmd.getOptionValue(EXCLUSIONS) : Salsa.class.getClassLoader().getResource(Salsa.DEFAULT_EXCLUSIONS_FILE).toString();
+        File tokenFile = new File(cmd.hasOption(TOKEN_FILE) ? cmd.getOptionValue(TOKEN_FILE) : DEFAULT_TOKEN_FILE);
+        File cacheDir = cmd.hasOption(CACHE_DIR) ? new File(cmd.getOptionValue(CACHE_DIR)) : null;
+
+        String token = generateToken();
+        writeTokenFile(tokenFile, token);
+        tokenFile.deleteOnExit();
+        logger.info("Client token written to " + tokenFile);
+        new SalsaDaemon(new File(exclusions), cacheDir, workers, queueSize, token, logger).serve(port);
+    }
+
+    /**
+     * @return a random hexadecimal token (256 bits)
+     */
+    static String generateToken() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+
+    /**
+     * Writes the token to a file that only its owner can read or write (replacing any previous file).
+     */
+    static void writeTokenFile(File tokenFile, String token) throws IOException {
+        Path path = tokenFile.toPath().toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        Files.deleteIfExists(path);
+        if (path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(path);
+            File file = path.toFile();
+            if (!(file.setReadable(false, false) && file.setReadable(true, true) && file.setWritable(false, false) && file.setWritable(true, true)))
+                throw new IOException("Cannot restrict the permissions of " + file);
+        }
+        Files.write(path, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean isAuthorized(JobRequest request) {
+        return request.token != null && MessageDigest.isEqual(token, request.token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Accepts connections on the loopback interface until a shutdown request is received.
+     *
+     * @param port local port
+     */
+    public void serve(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            logger.info("Salsa daemon listening on " + server.getLocalSocketAddress());
+            while (running) {
+                Socket socket = server.accept();
+                connections.submit(() -> handle(socket, server));
+            }
+        } catch (IOException e) {
+            if (running) throw e; // otherwise, the server socket was closed by a shutdown request
+        } finally {
+            jobs.shutdownNow();
+            connections.shutdownNow();
+        }
+        logger.info("Salsa daemon stopped");
+    }
+
+    private void handle(Socket socket, ServerSocket server) {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8))) {
+            EventSink sink = new EventSink(new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)));
+            String line = in.readLine();
+            if (line == null) return;
+
+            JobRequest request;
+            try {
+                request = gson.fromJson(line, JobRequest.class);
+                if (request == null) throw new JsonSyntaxException("empty request");
+            } catch (JsonSyntaxException e) {
+                sink.emit(null, "failed", 0, "error", "Malformed request: " + e.getMessage());
+                return;
+            }
+
+            if (!isAuthorized(request)) {
+                logger.warning("Rejected a request without a valid token");
+                sink.emit(request.id, "failed", 0, "error", "Unauthorized");
+                return;
+            }
+
+            if ("shutdown".equals(request.command)) {
+                running = false;
+                sink.emit(request.id, "finished", 0, "message", "shutting down");
+                server.close();
+                return;
+            }
+
+            Future<?> job;
+            // holding the sink's lock until "queued" is emitted, so that the job cannot emit "started" before it
+            synchronized (sink) {
+                try {
+                    job = jobs.submit(() -> run(request, sink));
+                } catch (RejectedExecutionException e) {
+                    sink.emit(request.id, "rejected", 0, "error", "Job queue is full (" + jobs.getQueue().size() + " pending jobs)");
+                    return;
+                }
+                sink.emit(request.id, "queued", 0, "pending", jobs.getQueue().size());
+            }
+            job.get(); // keeps the connection open until the job ends
+        } catch (IOException | ExecutionException e) {
+            logger.warning("Connection failed: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs one analysis job (failures are reported to the client as events).
+     */
+    private void run(JobRequest request, EventSink sink) {
+        long start = System.currentTimeMillis();
+        long deadline = request.timeLimitSeconds > 0 ? start + request.timeLimitSeconds * 1000L : Long.MAX_VALUE;
+        StreamingMonitor monitor = new StreamingMonitor(request.id, sink, start, deadline);
+        sink.emit(request.id, "started", 0, "jar", request.jar);
+        try {
+            if (request.jar == null || request.output == null || request.analysis == null)
+                throw new IllegalArgumentException("jar, output and analysis are required");
+            Salsa.OutputFormat format = Salsa.OutputFormat.valueOf((request.format == null ? "json" : request.format).toUpperCase());
+
+            AnalysisScope scope = makeAnalysisScope(request.jar, exclusionFile);
+            IClassHierarchy cha = makeIClassHierarchy(scope, new SharedPrimordialClassLoaderFactory(scope.getExclusions(), getRoot()));
+            AnalysisOptions options = makeAnalysisOptions(scope, cha);
+            CallGraphBuilder builder = SalsaZeroXCallGraphBuilder.make(scope, options, makeAnalysisCache(), cha, Salsa.parsePointerAnalysisPolicy(request.analysis));
+            SalsaOptions salsaOptions = ((AbstractSerializationCallGraphBuilder) builder).getSalsaOptions();
+            if (request.castFinder != null) salsaOptions.setCastFinderType(CastFinderType.parse(request.castFinder));
+            salsaOptions.setCacheDir(cacheDir);
+            salsaOptions.setExclusionsFile(exclusionFile);
+            salsaOptions.setTimeBudgetMillis(Math.max(0, request.timeBudgetSeconds) * 1000L);
+            salsaOptions.setHeapBudgetBytes(Math.max(0, request.heapBudgetMb) * 1024L * 1024L);
+
+            CallGraph cg = Salsa.buildCallGraph(builder, options, monitor);
+            File outputFile = new File(request.output);
+            boolean budgetLimited = Salsa.flagBudgetLimited(builder, outputFile, logger);
+            Salsa.saveCallGraph(cg, format, outputFile, request.compress, Math.max(1, request.outputThreads));
+            JsonObject result = new JsonObject();
+            result.addProperty("nodes", cg.getNumberOfNodes());
+            result.addProperty("budgetLimited", budgetLimited);
+            sink.emit(request.id, "finished", System.currentTimeMillis() - start, result);
+        } catch (CallGraphBuilderCancelException e) {
+            sink.emit(request.id, "canceled", System.currentTimeMillis() - start, "error", monitor.getCancelMessage());
+        } catch (Exception | StackOverflowError e) {
+            sink.emit(request.id, "failed", System.currentTimeMillis() - start, "error", e.toString());
+        }
+    }
+
+    /**
+     * @return the factory with the JRE loaders of the current worker thread (they are loaded by the first job it runs)
+     */
+    private SharedPrimordialClassLoaderFactory getRoot() throws IOException, ClassHierarchyException {
+        SharedPrimordialClassLoaderFactory root = roots.get();
+        if (root == null) {
+            root = SharedPrimordialClassLoaderFactory.makeRoot(exclusionFile);
+            roots.set(root);
+        }
+        return root;
+    }
+
+    /**
+     * Writes events to a client (as JSON lines). Once the client disconnects, events are discarded.
+     */
+    private class EventSink {
+        private final Writer writer;
+        private volatile boolean closed = false;
+
+        private EventSink(Writer writer) {
+            this.writer = writer;
+        }
+
+        private void emit(String id, String event, long elapsedMs, String key, Object value) {
+            JsonObject properties = new JsonObject();
+            if (key != null) {
+                if (value instanceof Number) properties.addProperty(key, (Number) value);
+                else properties.addProperty(key, value == null ? null : value.toString());
+            }
+            emit(id, event, elapsedMs, properties);
+        }
+
+        private synchronized void emit(String id, String event, long elapsedMs, JsonObject properties) {
+            if (closed) return;
+            JsonObject json = new JsonObject();
+            json.addProperty("id", id);
+            json.addProperty("event", event);
+            json.addProperty("elapsedMs", elapsedMs);
+            for (Map.Entry<String, JsonElement> property : properties.entrySet())
+                json.add(property.getKey(), property.getValue());
+            try {
+                writer.write(gson.toJson(json));
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException e) {
+                closed = true;
+            }
+        }
+
+        private boolean isClosed() {
+            return closed;
+        }
+    }
+
+    /**
+     * Streams the progress of a job to its client and cancels the job when it exceeds its time limit or the client disconnects.
+     */
+    private static class StreamingMonitor implements MonitorUtil.IProgressMonitor {
+        private final String id;
+        private final EventSink sink;
+        private final long start;
+        private final long deadline;
+        private volatile String cancelMessage = null;
+        private int taskNo;
+
+        private StreamingMonitor(String id, EventSink sink, long start, long deadline) {
+            this.id = id;
+            this.sink = sink;
+            this.start = start;
+            this.deadline = deadline;
+        }
+
+        private long elapsed() {
+            return System.currentTimeMillis() - start;
+        }
+
+        @Override
+        public void beginTask(String s, int i) {
+            this.taskNo = i;
+            sink.emit(id, "beginTask", elapsed(), "task", s);
+        }
+
+        @Override
+        public void subTask(String s) {
+            sink.emit(id, "subTask", elapsed(), "task", s);
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelMessage == null) cancelMessage = "Canceled";
+        }
+
+        @Override
+        public boolean isCanceled() {
+            if (cancelMessage == null) {
+                if (System.currentTimeMillis() > deadline) cancelMessage = "Time limit exceeded";
+                else if (sink.isClosed()) cancelMessage = "Client disconnected";
+            }
+            return cancelMessage != null;
+        }
+
+        @Override
+        public void done() {
+            sink.emit(id, "done", elapsed(), null, null);
+        }
+
+        @Override
+        public void worked(int i) {
+            sink.emit(id, "worked", elapsed(), "units", taskNo + "." + i);
+        }
+
+        @Override
+        public String getCancelMessage() {
+            return cancelMessage == null ? "Canceled" : cancelMessage;
+        }
+    }
+
+    /**
+     * A job request (deserialized from JSON).
+     */
+    private static class JobRequest {
+        private String token;
+        private String command;
+        private String id;
+        private String jar;
+        private String analysis;
+        private String format;
+        private String output;
+        private String castFinder;
+        private long timeLimitSeconds;
+        private long timeBudgetSeconds;
+        private long heapBudgetMb;
+        private boolean compress;
+        private int outputThreads;
+    }
+
+    private static CommandLine setUpCommandLine(String[] args) {
+        Option port = new Option(null, PORT, true, "Local port where the daemon listens [default = " + DEFAULT_PORT + "]");
+        port.setRequired(false);
+
+        Option workers = new Option(null, WORKERS, true, "Number of jobs analyzed in parallel [default = 1]");
+        workers.setRequired(false);
+
+        Option queueSize = new Option(null, QUEUE_SIZE, true, "Maximum number of pending jobs [default = " + DEFAULT_QUEUE_SIZE + "]");
+        queueSize.setRequired(false);
+
+        Option exclusionFile = new Option(EXCLUSIONS.substring(0, 1), EXCLUSIONS, true, "Path to the exclusions file");
+        exclusionFile.setRequired(false);
+
+        Option tokenFile = new Option(null, TOKEN_FILE, true, "File where the client token is written (readable only by its owner) [default = " + DEFAULT_TOKEN_FILE + "]");
+        tokenFile.setRequired(false);
+
+        Option cacheDir = new Option(null, CACHE_DIR, true, "Directory for caching data computed for a classpath across jobs");
+        cacheDir.setRequired(false);
+
+        Options options = new Options();
+        options.addOption(port);
+        options.addOption(workers);
+        options.addOption(queueSize);
+        options.addOption(exclusionFile);
+        options.addOption(tokenFile);
+        options.addOption(cacheDir);
+
+        try {
+            return new DefaultParser().parse(options, args);
+        } catch (ParseException ex) {
+            System.err.println(ex.getMessage());
+            new HelpFormatter().printHelp(SalsaDaemon.class.getSimpleName(), options);
+            System.exit(-1);
+            return null;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import com.ibm.wala.ssa.SSAAbstractInvokeInstruction;
 import com.ibm.wala.types.Selector;
 import com.ibm.wala.types.TypeReference;
 import com.ibm.wala.util.CancelException;
+import edu.rit.se.design.callgraph.event.AnalysisEventListener;
 import edu.rit.se.design.callgraph.model.AbstractClassModel;
 import edu.rit.se.design.callgraph.model.ObjectInputStreamModel;
 import edu.rit.se.design.callgraph.model.ObjectOutputStreamModel;
@@ -36,6 +37,7 @@ import edu.rit.se.design.dodo.utils.wala.WalaUtils;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.apache.commons.lang3.tuple.Triple;
 
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -62,6 +64,10 @@ public class AbstractSerializationCallGraphBuilder extends SSAPropagationCallGra
      * Set of model nodes to check against
      */
     protected final Set<CGNode> models;
+    /**
+     * Graph node numbers of the model nodes (a constant-time membership check, used on the hot paths of the propagation)
+     */
+    protected final BitSet modelNodeIds;
 
 
     /**
@@ -82,6 +88,27 @@ public class AbstractSerializationCallGraphBuilder extends SSAPropagationCallGra
     protected final PointerAnalysisPolicy defaultPaPolicy;
     protected final PointerAnalysisPolicy taintedPaPolicy;
 
+    /**
+     * Options for handling serialization-related features
+     */
+    protected final SalsaOptions salsaOptions;
+    /**
+     * Metrics collected by the solver while building the call graph
+     */
+    protected final SerializationSolverMetrics solverMetrics;
+    /**
+     * Budget for building the call graph (created when the solver is made)
+     */
+    protected AnalysisBudget budget;
+    /**
+     * If true, methods invoked from models are analyzed in a single context (set when the budget is exceeded)
+     */
+    protected volatile boolean collapseModelContexts = false;
+    /**
+     * Receives the timing events of each solver round
+     */
+    protected AnalysisEventListener eventListener = AnalysisEventListener.NONE;
+
     protected AbstractSerializationCallGraphBuilder(IMethod abstractRootMethod,
                                                     AnalysisOptions options,
                                                     IAnalysisCacheView cache,
@@ -90,9 +117,12 @@ public class AbstractSerializationCallGraphBuilder extends SSAPropagationCallGra
                                                     PointerAnalysisPolicy taintedPaPolicy) {
         super(abstractRootMethod, options, cache, pointerKeyFactory);
         this.models = new HashSet<>();
+        this.modelNodeIds = new BitSet();
         this.cache = cache;
         this.defaultPaPolicy = defaultPaPolicy;
         this.taintedPaPolicy = taintedPaPolicy;
+        this.salsaOptions = new SalsaOptions();
+        this.solverMetrics = new SerializationSolverMetrics();
         this.deserializationWorkList = new HashSet<>();
         this.serializationWorkList = new HashSet<>();
         this.objectInputStreamModel = new ObjectInputStreamModel(cha, options, cache);
@@ -100,6 +130,44 @@ public class AbstractSerializationCallGraphBuilder extends SSAPropagationCallGra
     }
 
 
+    /**
+     * @return the options for handling serialization-related features (to be changed before building the call graph)
+     */
+    public SalsaOptions getSalsaOptions() {
+        return salsaOptions;
+    }
+
+    /**
+     * @return per-iteration metrics of the points-to solver (filled in while the call graph is built)
+     */
+    public SerializationSolverMetrics getSolverMetrics() {
+        return solverMetrics;
+    }
+
+    /**
+     * @return the budget for building the call graph (null before the call graph construction starts)
+     */
+    public AnalysisBudget getBudget() {
+        return budget;
+    }
+
+    public AnalysisEventListener getEventListener() {
+        return eventListener;
+    }
+
+    public void setEventListener(AnalysisEventListener eventListener) {
+        if (eventListener == null) throw new IllegalArgumentException("eventListener cannot be null");
+        this.eventListener = eventListener;
+    }
+
+    public boolean isCollapseModelContexts() {
+        return collapseModelContexts;
+    }
+
+    public void setCollapseModelContexts(boolean collapseModelContexts) {
+        this.collapseModelContexts = collapseModelContexts;
+    }
+
     public Set<Triple<CGNode, SSAAbstractInvokeInstruction, CGNode>> getSerializationWorkList() {
         return serializationWorkList;
     }
@@ -156,6 +224,7 @@ public class AbstractSerializationCallGraphBuilder extends SSAPropagationCallGra
 
                 // adds to the set of model methods
                 models.add(newTarget);
+                modelNodeIds.set(newTarget.getGraphNodeId());
 
                 // invalidate previous cache
                 callGraph.getAnalysisCache().invalidate(targetMethod, target.getContext());
@@ -16,12 +16,12 @@
 package edu.rit.se.design.callgraph.analysis;
 
 import com.ibm.wala.classLoader.IClass;
-import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
-import com.ibm.wala.ipa.cha.IClassHierarchy;
-import com.ibm.wala.types.TypeReference;
 import com.ibm.wala.util.MonitorUtil;
+import edu.rit.se.design.callgraph.util.PossibleTypesCache;
+import edu.rit.se.design.callgraph.util.SerializableClassIndex;
+import edu.rit.se.design.callgraph.util.SerializableTypeIndex;
+import edu.rit.se.design.callgraph.util.SerializationCallbackIndex;
 
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -30,31 +30,82 @@ import java.util.Set;
  * @author Joanna C. S. Santos
  */
 public abstract class AbstractSerializationHandler {
-    protected final SSAPropagationCallGraphBuilder builder;
+    protected final AbstractSerializationCallGraphBuilder builder;
+    protected final SerializableClassIndex serializableClassIndex;
     protected final Set<IClass> serializableClasses;
+    protected final SerializableTypeIndex serializableTypeIndex;
+    /**
+     * callback methods of classes, shared by the serialization and deserialization paths
+     */
+    protected final SerializationCallbackIndex callbackIndex;
+    /**
+     * possible types for fields, reused across solver iterations
+     */
+    protected final PossibleTypesCache possibleTypesCache;
+    // counters for the last call to handleSerializationRelatedFeatures
+    protected int lastConstraintsAdded;
+    protected int lastChangedNodes;
+    protected int lastStatementsAdded;
+    /**
+     * sets of possible types larger than this are trimmed to application classes (it is lowered when the analysis budget is exceeded)
+     */
+    public static final int DEFAULT_PRUNING_THRESHOLD = 100;
+    protected volatile int pruningThreshold = DEFAULT_PRUNING_THRESHOLD;
 
-    public AbstractSerializationHandler(SSAPropagationCallGraphBuilder builder) {
+    public AbstractSerializationHandler(AbstractSerializationCallGraphBuilder builder) {
         this.builder = builder;
-        this.serializableClasses = computeSerializableClasses();
+        this.serializableClassIndex = SerializableClassIndex.findOrCompute(builder.getClassHierarchy(), builder.getSalsaOptions().getExclusionsFile(), builder.getSalsaOptions().getCacheDir());
+        this.serializableClasses = serializableClassIndex.getSerializableClasses();
+        this.serializableTypeIndex = new SerializableTypeIndex(builder.getClassHierarchy(), serializableClasses);
+        this.possibleTypesCache = new PossibleTypesCache(serializableTypeIndex);
+        this.callbackIndex = new SerializationCallbackIndex(serializableClassIndex);
     }
 
     public abstract void handleSerializationRelatedFeatures(MonitorUtil.IProgressMonitor monitor);
 
     /**
-     * Computes the set of serializable classes.
+     * Prunes possible types more aggressively (called when the analysis budget is exceeded).
+     */
+    public void tightenPruning() {
+        pruningThreshold = Math.max(1, pruningThreshold / 10);
+    }
+
+    public int getPruningThreshold() {
+        return pruningThreshold;
+    }
+
+    public PossibleTypesCache getPossibleTypesCache() {
+        return possibleTypesCache;
+    }
+
+    /**
+     * Zeroes the counters of the last round (the solver calls it every round, including the ones that skip this handler).
+     */
+    public void resetCounters() {
+        lastConstraintsAdded = 0;
+        lastChangedNodes = 0;
+        lastStatementsAdded = 0;
+    }
+
+    /**
+     * @return number of constraints that the handler itself added to the propagation system during the last round
+     * (the constraints derived from re-visiting the changed nodes are not included)
      */
+    public int getConstraintsAdded() {
+        return lastConstraintsAdded;
+    }
 
-    private Set<IClass> computeSerializableClasses() {
-        IClassHierarchy cha = builder.getClassHierarchy();
-        Set<IClass> classes = new HashSet<>();
-        IClass serialInterface = cha.lookupClass(TypeReference.JavaIoSerializable);
-        // iterates all classes in the classpath to compute what is serializable or not
-        for (IClass c : cha) {
-            if (cha.implementsInterface(c, serialInterface)) {
-                classes.add(c);
-            }
-        }
+    /**
+     * @return number of model nodes that changed during the last round
+     */
+    public int getChangedNodes() {
+        return lastChangedNodes;
+    }
 
-        return classes;
+    /**
+     * @return number of statements added to the method models during the last round
+     */
+    public int getStatementsAdded() {
+        return lastStatementsAdded;
     }
 }
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.analysis;
+
+import com.ibm.wala.util.MonitorUtil;
+
+/**
+ * Wall-clock and heap budgets for call graph construction.
+ * When a budget is exceeded, {@link SerializationPointsToSolver} degrades the analysis one level at a time
+ * (see {@link Degradation}). If the budget is still exceeded once serialization rounds were stopped,
+ * the construction is canceled (through {@link #wrap(MonitorUtil.IProgressMonitor)}) and WALA returns the partial call graph.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class AnalysisBudget {
+
+    /**
+     * Degradation steps, from the least to the most disruptive.
+     */
+    public enum Degradation {
+        /**
+         * the analysis runs as configured
+         */
+        NONE,
+        /**
+         * the possible types of fields and cast types are pruned more aggressively
+         */
+        TIGHTENED_PRUNING,
+        /**
+         * methods invoked from models are analyzed in a single context
+         */
+        COLLAPSED_MODEL_CONTEXTS,
+        /**
+         * no further serialization rounds (the call graph is completed by the delegate solver only)
+         */
+        STOPPED_SERIALIZATION
+    }
+
+    /**
+     * minimum interval between two garbage collection hints (see {@link #getLiveHeapBytes()})
+     */
+    private static final long GC_HINT_INTERVAL_MILLIS = 1_000L;
+
+    private final long timeBudgetMillis;
+    private final long heapBudgetBytes;
+    private final long start;
+    private volatile Degradation degradation = Degradation.NONE;
+    private volatile boolean canceled = false;
+    // heap in use right after the last garbage collection hint
+    private long lastGcHintMillis = 0;
+    private long liveHeapBytes = 0;
+
+    /**
+     * @param timeBudgetMillis wall-clock budget in milliseconds (0 = unlimited)
+     * @param heapBudgetBytes  live heap budget in bytes (0 = unlimited)
+     */
+    public AnalysisBudget(long timeBudgetMillis, long heapBudgetBytes) {
+        if (timeBudgetMillis < 0) throw new IllegalArgumentException("timeBudgetMillis cannot be negative");
+        if (heapBudgetBytes < 0) throw new IllegalArgumentException("heapBudgetBytes cannot be negative");
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.heapBudgetBytes = heapBudgetBytes;
+        this.start = System.currentTimeMillis();
+    }
+
+    public boolean isLimited() {
+        return timeBudgetMillis > 0 || heapBudgetBytes > 0;
+    }
+
+    /**
+     * @return true if the elapsed time or the live heap is above the budget
+     */
+    public boolean isExceeded() {
+        if (timeBudgetMillis > 0 && System.currentTimeMillis() - start > timeBudgetMillis) return true;
+        if (heapBudgetBytes > 0) {
+            // the used heap includes garbage, so it is only an upper bound of the live heap
+            if (getUsedHeapBytes() <= heapBudgetBytes) return false;
+            return getLiveHeapBytes() > heapBudgetBytes;
+        }
+        return false;
+    }
+
+    private static long getUsedHeapBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Measures the heap after hinting a garbage collection (at most once every {@link #GC_HINT_INTERVAL_MILLIS};
+     * in between, it returns the last measurement). If the JVM ignores the hint, this is the used heap.
+     *
+     * @return the heap in use after a garbage collection
+     */
+    private synchronized long getLiveHeapBytes() {
+        long now = System.currentTimeMillis();
+        if (now - lastGcHintMillis >= GC_HINT_INTERVAL_MILLIS) {
+            System.gc();
+            liveHeapBytes = getUsedHeapBytes();
+            lastGcHintMillis = System.currentTimeMillis();
+        }
+        return liveHeapBytes;
+    }
+
+    /**
+     * Moves to the next degradation level (or cancels the construction if serialization rounds were already stopped).
+     *
+     * @return the new degradation level
+     */
+    public synchronized Degradation escalate() {
+        if (degradation == Degradation.STOPPED_SERIALIZATION)
+            canceled = true;
+        else
+            degradation = Degradation.values()[degradation.ordinal() + 1];
+        return degradation;
+    }
+
+    public Degradation getDegradation() {
+        return degradation;
+    }
+
+    /**
+     * @return true if the call graph may be incomplete because of the budget
+     */
+    public boolean isBudgetLimited() {
+        return degradation != Degradation.NONE || canceled;
+    }
+
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    /**
+     * Wraps a progress monitor so that it reports cancellation when the budget is exhausted
+     * (i.e., serialization rounds were stopped and the budget is still exceeded).
+     *
+     * @param monitor the original monitor (it may be null)
+     * @return a monitor that honors this budget
+     */
+    public MonitorUtil.IProgressMonitor wrap(MonitorUtil.IProgressMonitor monitor) {
+        return new MonitorUtil.IProgressMonitor() {
+            @Override
+            public void beginTask(String task, int totalWork) {
+                if (monitor != null) monitor.beginTask(task, totalWork);
+            }
+
+            @Override
+            public void subTask(String subTask) {
+                if (monitor != null) monitor.subTask(subTask);
+            }
+
+            @Override
+            public void cancel() {
+                canceled = true;
+                if (monitor != null) monitor.cancel();
+            }
+
+            @Override
+            public boolean isCanceled() {
+                if (!canceled && degradation == Degradation.STOPPED_SERIALIZATION && isExceeded()) canceled = true;
+                return canceled || (monitor != null && monitor.isCanceled());
+            }
+
+            @Override
+            public void done() {
+                if (monitor != null) monitor.done();
+            }
+
+            @Override
+            public void worked(int units) {
+                if (monitor != null) monitor.worked(units);
+            }
+
+            @Override
+            public String getCancelMessage() {
+                return canceled ? "Analysis budget exhausted" : (monitor != null ? monitor.getCancelMessage() : "Canceled");
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "AnalysisBudget{" +
+                "timeBudgetMillis=" + timeBudgetMillis +
+                ", heapBudgetBytes=" + heapBudgetBytes +
+                ", degradation=" + degradation +
+                ", canceled=" + canceled +
+                '}';
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.analysis;
+
+import edu.rit.se.design.callgraph.cast.CastFinderType;
+import edu.rit.se.design.callgraph.cast.DefUseCastFinder;
+
+import java.io.File;
+
+/**
+ * Options that tune how serialization-related features are handled during call graph construction.
+ * They must be set before the call graph is built.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class SalsaOptions {
+
+    /**
+     * strategy used for finding the downcasts of deserialized objects
+     */
+    private CastFinderType castFinderType = CastFinderType.SLICER;
+    /**
+     * maximum number of inter-procedural hops when using {@link CastFinderType#DEF_USE}
+     */
+    private int castFinderMaxHops = DefUseCastFinder.DEFAULT_MAX_HOPS;
+    /**
+     * directory where data computed for a classpath is persisted across runs (null = nothing is persisted)
+     */
+    private File cacheDir = null;
+    /**
+     * exclusions file used to create the analysis scope (it is part of the key of the data persisted in cacheDir)
+     */
+    private File exclusionsFile = null;
+    /**
+     * whether the subclasses of a cast type are trimmed to application classes when there are more than subclassPruningThreshold of them
+     */
+    private boolean subclassPruning = false;
+    private int subclassPruningThreshold = 100;
+    /**
+     * wall-clock and used heap budgets for building the call graph (0 = unlimited); see {@link AnalysisBudget}
+     */
+    private long timeBudgetMillis = 0;
+    private long heapBudgetBytes = 0;
+
+    public CastFinderType getCastFinderType() {
+        return castFinderType;
+    }
+
+    public void setCastFinderType(CastFinderType castFinderType) {
+        if (castFinderType == null) throw new IllegalArgumentException("castFinderType cannot be null");
+        this.castFinderType = castFinderType;
+    }
+
+    public int getCastFinderMaxHops() {
+        return castFinderMaxHops;
+    }
+
+    public void setCastFinderMaxHops(int castFinderMaxHops) {
+        if (castFinderMaxHops < 0) throw new IllegalArgumentException("castFinderMaxHops cannot be negative");
+        this.castFinderMaxHops = castFinderMaxHops;
+    }
+
+    public File getCacheDir() {
+        return cacheDir;
+    }
+
+    public void setCacheDir(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    public File getExclusionsFile() {
+        return exclusionsFile;
+    }
+
+    public void setExclusionsFile(File exclusionsFile) {
+        this.exclusionsFile = exclusionsFile;
+    }
+
+    public boolean isSubclassPruning() {
+        return subclassPruning;
+    }
+
+    public void setSubclassPruning(boolean subclassPruning) {
+        this.subclassPruning = subclassPruning;
+    }
+
+    public int getSubclassPruningThreshold() {
+        return subclassPruningThreshold;
+    }
+
+    public void setSubclassPruningThreshold(int subclassPruningThreshold) {
+        if (subclassPruningThreshold < 0) throw new IllegalArgumentException("subclassPruningThreshold cannot be negative");
+        this.subclassPruningThreshold = subclassPruningThreshold;
+    }
+
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        if (timeBudgetMillis < 0) throw new IllegalArgumentException("timeBudgetMillis cannot be negative");
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    public long getHeapBudgetBytes() {
+        return heapBudgetBytes;
+    }
+
+    public void setHeapBudgetBytes(long heapBudgetBytes) {
+        if (heapBudgetBytes < 0) throw new IllegalArgumentException("heapBudgetBytes cannot be negative");
+        this.heapBudgetBytes = heapBudgetBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "SalsaOptions{" +
+                "castFinderType=" + castFinderType +
+                ", castFinderMaxHops=" + castFinderMaxHops +
+                ", cacheDir=" + cacheDir +
+                ", exclusionsFile=" + exclusionsFile +
+                ", subclassPruning=" + subclassPruning +
+                ", subclassPruningThreshold=" + subclassPruningThreshold +
+                ", timeBudgetMillis=" + timeBudgetMillis +
+                ", heapBudgetBytes=" + heapBudgetBytes +
+                '}';
+    }
+}
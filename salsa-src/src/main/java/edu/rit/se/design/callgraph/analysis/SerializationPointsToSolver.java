@@ -15,16 +15,18 @@
 
 package edu.rit.se.design.callgraph.analysis;
 
-import com.ibm.wala.fixedpoint.impl.AbstractFixedPointSolver;
-import com.ibm.wala.fixedpoint.impl.Worklist;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
 import com.ibm.wala.ipa.callgraph.propagation.AbstractPointsToSolver;
 import com.ibm.wala.ipa.callgraph.propagation.IPointsToSolver;
 import com.ibm.wala.ipa.callgraph.propagation.PropagationSystem;
 import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
 import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.MonitorUtil;
+import edu.rit.se.design.callgraph.event.AnalysisEvent;
+import edu.rit.se.design.callgraph.event.AnalysisEventListener;
 
-import java.lang.reflect.Field;
+import java.util.Iterator;
 
 
 /**
@@ -35,51 +37,125 @@ import java.lang.reflect.Field;
 public class SerializationPointsToSolver extends AbstractPointsToSolver {
     private IPointsToSolver delegate;
     private AbstractSerializationHandler serializationHandler;
+    private final SerializationSolverMetrics metrics;
+    /**
+     * budget for the call graph construction (null = unlimited)
+     */
+    private final AnalysisBudget budget;
     private int i = 1; // to mark the iterations for this subtask related to serialization support
-    private int delta = 0; // to mark how many extra elements were added by Salsa to the worklist
 
-    public SerializationPointsToSolver(PropagationSystem system, SSAPropagationCallGraphBuilder builder, AbstractSerializationHandler serializationHandler, IPointsToSolver delegate) {
+    public SerializationPointsToSolver(PropagationSystem system, SSAPropagationCallGraphBuilder builder, AbstractSerializationHandler serializationHandler, IPointsToSolver delegate, SerializationSolverMetrics metrics, AnalysisBudget budget) {
         super(system, builder);
         this.delegate = delegate;
         this.serializationHandler = serializationHandler;
+        this.metrics = metrics;
+        this.budget = budget;
+    }
+
+    public SerializationPointsToSolver(PropagationSystem system, SSAPropagationCallGraphBuilder builder, AbstractSerializationHandler serializationHandler, IPointsToSolver delegate, SerializationSolverMetrics metrics) {
+        this(system, builder, serializationHandler, delegate, metrics, null);
+    }
+
+    public SerializationPointsToSolver(PropagationSystem system, SSAPropagationCallGraphBuilder builder, AbstractSerializationHandler serializationHandler, IPointsToSolver delegate) {
+        this(system, builder, serializationHandler, delegate, new SerializationSolverMetrics());
     }
 
     @Override
     public void solve(MonitorUtil.IProgressMonitor monitor) throws IllegalArgumentException, CancelException {
+        if (budget != null && budget.isLimited()) monitor = budget.wrap(monitor);
+        AnalysisEventListener eventListener = getBuilder() instanceof AbstractSerializationCallGraphBuilder ?
+                ((AbstractSerializationCallGraphBuilder) getBuilder()).getEventListener() : AnalysisEventListener.NONE;
 
-
+        // pointer keys at the beginning of the round (the count at the end of a round is reused for the next one)
+        int pointerKeysBefore = countPointerKeys();
         do {
             if (monitor != null) monitor.beginTask("Points-to analysis", i);
             // ensures that all is computed normally
+            long start = System.nanoTime();
             this.delegate.solve(monitor);
-            int before = getWorkListSize();
+            long delegateEnd = System.nanoTime();
             // adding constraints from newly (synthetic) nodes that replaced calls to ObjectInputStream
-            if (monitor != null) monitor.subTask("Serialization-related Features");
-            serializationHandler.handleSerializationRelatedFeatures(monitor);
+            serializationHandler.resetCounters();
+            boolean serializationStopped = budget != null && budget.getDegradation() == AnalysisBudget.Degradation.STOPPED_SERIALIZATION;
+            if (!serializationStopped) {
+                if (monitor != null) monitor.subTask("Serialization-related Features");
+                serializationHandler.handleSerializationRelatedFeatures(monitor);
+            }
+            long handlerEnd = System.nanoTime();
+            int instanceKeys = getSystem().getInstanceKeyMapping().getSize();
+            int pointerKeys = countPointerKeys();
+            metrics.add(new SerializationSolverMetrics.Iteration(i,
+                    delegateEnd - start,
+                    handlerEnd - delegateEnd,
+                    serializationHandler.getConstraintsAdded(),
+                    instanceKeys,
+                    pointerKeys,
+                    pointerKeys - pointerKeysBefore,
+                    getBuilder().getCallGraph().getNumberOfNodes(),
+                    serializationHandler.getChangedNodes(),
+                    serializationHandler.getStatementsAdded()));
+            pointerKeysBefore = pointerKeys;
+            if (eventListener != AnalysisEventListener.NONE)
+                eventListener.onEvent(makeRoundEvent(start, handlerEnd, instanceKeys, pointerKeys));
             if (monitor != null) monitor.worked(i++);
-            delta += (getWorkListSize() - before);
+            if (budget != null && budget.isLimited() && budget.isExceeded()) degrade(monitor);
         } while (!getSystem().emptyWorkList());
+        if (budget != null) metrics.setDegradation(budget.getDegradation());
 
         if (monitor != null) {
-            monitor.subTask("SerializationPointsToSolver::extra iterations= " + i);
-            monitor.subTask("SerializationPointsToSolver::delta= " + delta);
+            monitor.subTask("SerializationPointsToSolver::" + metrics);
+            monitor.subTask("SerializationPointsToSolver::" + serializationHandler.getPossibleTypesCache());
         }
     }
 
+    /**
+     * @return number of pointer keys with a points-to set in the propagation system
+     */
+    private int countPointerKeys() {
+        int pointerKeys = 0;
+        for (Iterator<?> it = getSystem().iteratePointerKeys(); it.hasNext(); it.next()) pointerKeys++;
+        return pointerKeys;
+    }
 
-    private int getWorkListSize() {
-        try {
-            Field privateField = AbstractFixedPointSolver.class.getDeclaredField("workList");
-            privateField.setAccessible(true);
-
-            Worklist list = (Worklist) privateField.get(getSystem());
+    /**
+     * Creates the event for the current round (counting edges takes linear time, so it is only done when someone listens).
+     */
+    private AnalysisEvent makeRoundEvent(long start, long end, int instanceKeys, int pointerKeys) {
+        CallGraph cg = getBuilder().getCallGraph();
+        long edges = 0;
+        for (CGNode n : cg) edges += cg.getSuccNodeCount(n);
+        return new AnalysisEvent(AnalysisEvent.SOLVER_ROUND, null, start, end)
+                .withCounter(AnalysisEvent.ROUND, i)
+                .withCounter(AnalysisEvent.CG_NODES, cg.getNumberOfNodes())
+                .withCounter(AnalysisEvent.CG_EDGES, edges)
+                .withCounter(AnalysisEvent.POINTER_KEYS, pointerKeys)
+                .withCounter(AnalysisEvent.INSTANCE_KEYS, instanceKeys)
+                .withCounter(AnalysisEvent.CONSTRAINTS_ADDED, serializationHandler.getConstraintsAdded())
+                .withCounter(AnalysisEvent.MODEL_STATEMENTS, serializationHandler.getStatementsAdded());
+    }
 
-            return list.size();
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            throw new RuntimeException(e);
+    /**
+     * Degrades the analysis one step, because the budget was exceeded.
+     */
+    private void degrade(MonitorUtil.IProgressMonitor monitor) throws CancelException {
+        AnalysisBudget.Degradation degradation = budget.escalate();
+        metrics.setDegradation(degradation);
+        if (monitor != null) monitor.subTask("SerializationPointsToSolver::budget exceeded, degradation=" + degradation);
+        if (budget.isCanceled()) throw CancelException.make("Analysis budget exhausted");
+        switch (degradation) {
+            case TIGHTENED_PRUNING:
+                serializationHandler.tightenPruning();
+                break;
+            case COLLAPSED_MODEL_CONTEXTS:
+                ((AbstractSerializationCallGraphBuilder) getBuilder()).setCollapseModelContexts(true);
+                break;
+            case STOPPED_SERIALIZATION:
+                // nothing else to do: the handler is no longer called
+                break;
         }
-
-
     }
 
+    public SerializationSolverMetrics getMetrics() {
+        return metrics;
+    }
 }
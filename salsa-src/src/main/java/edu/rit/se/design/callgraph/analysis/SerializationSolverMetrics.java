@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.analysis;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Metrics collected by {@link SerializationPointsToSolver}, one record per outer iteration
+ * (i.e., a run of the delegate solver followed by the serialization handler).
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class SerializationSolverMetrics {
+
+    private static final String CSV_HEADER = "iteration,delegateMillis,handlerMillis,constraintsAdded,instanceKeys,pointerKeys,pointerKeysAdded,callGraphNodes,changedNodes,modelStatementsAdded";
+
+    private final List<Iteration> iterations = new ArrayList<>();
+    /**
+     * how much the analysis was degraded to fit its budget
+     */
+    private AnalysisBudget.Degradation degradation = AnalysisBudget.Degradation.NONE;
+
+    /**
+     * Records an outer iteration of the solver.
+     *
+     * @param iteration the metrics for the iteration
+     */
+    public void add(Iteration iteration) {
+        iterations.add(iteration);
+    }
+
+    public List<Iteration> getIterations() {
+        return Collections.unmodifiableList(iterations);
+    }
+
+    public int getNumberOfIterations() {
+        return iterations.size();
+    }
+
+    public AnalysisBudget.Degradation getDegradation() {
+        return degradation;
+    }
+
+    public void setDegradation(AnalysisBudget.Degradation degradation) {
+        this.degradation = degradation;
+    }
+
+    public long getDelegateNanos() {
+        return iterations.stream().mapToLong(it -> it.delegateNanos).sum();
+    }
+
+    public long getHandlerNanos() {
+        return iterations.stream().mapToLong(it -> it.handlerNanos).sum();
+    }
+
+    public long getConstraintsAdded() {
+        return iterations.stream().mapToLong(it -> it.constraintsAdded).sum();
+    }
+
+    public long getModelStatementsAdded() {
+        return iterations.stream().mapToLong(it -> it.modelStatementsAdded).sum();
+    }
+
+    /**
+     * Saves the metrics in a file; CSV if the file name ends with ".csv", JSON otherwise.
+     *
+     * @param outputFile where to save the metrics
+     */
+    public void save(File outputFile) {
+        try (Writer writer = new FileWriter(outputFile)) {
+            if (outputFile.getName().toLowerCase().endsWith(".csv"))
+                writer.write(toCsv());
+            else
+                writer.write(toJson());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public String toJson() {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        return gson.toJson(this);
+    }
+
+    public String toCsv() {
+        StringBuilder sb = new StringBuilder(CSV_HEADER).append('\n');
+        for (Iteration it : iterations) {
+            sb.append(String.format("%d,%d,%d,%d,%d,%d,%d,%d,%d,%d\n",
+                    it.index, it.delegateNanos / 1_000_000L, it.handlerNanos / 1_000_000L, it.constraintsAdded,
+                    it.instanceKeys, it.pointerKeys, it.pointerKeysAdded, it.callGraphNodes, it.changedNodes, it.modelStatementsAdded));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SerializationSolverMetrics{iterations=%d, delegate=%dms, handler=%dms, constraintsAdded=%d, modelStatementsAdded=%d, degradation=%s}",
+                getNumberOfIterations(), getDelegateNanos() / 1_000_000L, getHandlerNanos() / 1_000_000L, getConstraintsAdded(), getModelStatementsAdded(), degradation);
+    }
+
+    /**
+     * Metrics for a single outer iteration.
+     */
+    public static class Iteration {
+        private final int index;
+        private final long delegateNanos;
+        private final long handlerNanos;
+        // constraints that the serialization handler added directly to the propagation system
+        private final int constraintsAdded;
+        // abstract objects known by the propagation system at the end of the iteration
+        private final int instanceKeys;
+        // points-to growth, measured as the number of pointer keys (from the beginning to the end of the iteration)
+        private final int pointerKeys;
+        private final int pointerKeysAdded;
+        private final int callGraphNodes;
+        private final int changedNodes;
+        private final int modelStatementsAdded;
+
+        public Iteration(int index, long delegateNanos, long handlerNanos, int constraintsAdded, int instanceKeys, int pointerKeys,
+                         int pointerKeysAdded, int callGraphNodes, int changedNodes, int modelStatementsAdded) {
+            this.index = index;
+            this.delegateNanos = delegateNanos;
+            this.handlerNanos = handlerNanos;
+            this.constraintsAdded = constraintsAdded;
+            this.instanceKeys = instanceKeys;
+            this.pointerKeys = pointerKeys;
+            this.pointerKeysAdded = pointerKeysAdded;
+            this.callGraphNodes = callGraphNodes;
+            this.changedNodes = changedNodes;
+            this.modelStatementsAdded = modelStatementsAdded;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public long getDelegateNanos() {
+            return delegateNanos;
+        }
+
+        public long getHandlerNanos() {
+            return handlerNanos;
+        }
+
+        public int getConstraintsAdded() {
+            return constraintsAdded;
+        }
+
+        public int getInstanceKeys() {
+            return instanceKeys;
+        }
+
+        public int getPointerKeys() {
+            return pointerKeys;
+        }
+
+        public int getPointerKeysAdded() {
+            return pointerKeysAdded;
+        }
+
+        public int getCallGraphNodes() {
+            return callGraphNodes;
+        }
+
+        public int getChangedNodes() {
+            return changedNodes;
+        }
+
+        public int getModelStatementsAdded() {
+            return modelStatementsAdded;
+        }
+    }
+}
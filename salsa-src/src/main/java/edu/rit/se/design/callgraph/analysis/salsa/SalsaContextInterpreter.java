@@ -29,6 +29,8 @@ import edu.rit.se.design.callgraph.model.MethodModel;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * An object that provides an interface to local method information needed for CFA.
@@ -38,6 +40,11 @@ import java.util.List;
  */
 public class SalsaContextInterpreter extends ContextInsensitiveSSAInterpreter {
 
+    /**
+     * IR and DefUse of each model node, along with the version of the model they were computed for
+     */
+    private final Map<CGNode, VersionedIR> irs = new ConcurrentHashMap<>();
+
     public SalsaContextInterpreter(AnalysisOptions options, IAnalysisCacheView cache) {
         super(options, cache);
     }
@@ -50,7 +57,20 @@ public class SalsaContextInterpreter extends ContextInsensitiveSSAInterpreter {
     @Override
     public IR getIR(CGNode node) {
         if (node == null) throw new IllegalArgumentException("node is null");
-        return getAnalysisCache().getIR(node.getMethod(), node.getContext());
+        return findOrCreate(node).ir;
+    }
+
+    /**
+     * Returns the IR (and DefUse) for a model node, only retrieving it from the cache when the model changed.
+     */
+    private VersionedIR findOrCreate(CGNode node) {
+        int version = ((MethodModel) node.getMethod()).getVersion(node.getContext());
+        VersionedIR cached = irs.get(node);
+        if (cached != null && cached.version == version) return cached;
+        IR ir = getAnalysisCache().getIR(node.getMethod(), node.getContext());
+        VersionedIR result = new VersionedIR(version, ir);
+        irs.put(node, result);
+        return result;
     }
 
     @Override
@@ -80,8 +100,10 @@ public class SalsaContextInterpreter extends ContextInsensitiveSSAInterpreter {
         if (node == null) {
             throw new IllegalArgumentException("node is null");
         }
-        IR ir = getAnalysisCache().getIR(node.getMethod(), node.getContext());
-        return ((AnalysisCache) getAnalysisCache()).getSSACache().findOrCreateDU(ir, node.getContext());
+        VersionedIR versionedIR = findOrCreate(node);
+        if (versionedIR.du == null && versionedIR.ir != null)
+            versionedIR.du = ((AnalysisCache) getAnalysisCache()).getSSACache().findOrCreateDU(versionedIR.ir, node.getContext());
+        return versionedIR.du;
     }
 
     @Override
@@ -103,4 +125,15 @@ public class SalsaContextInterpreter extends ContextInsensitiveSSAInterpreter {
         }
         return result.iterator();
     }
-}
\ No newline at end of file
+
+    private static class VersionedIR {
+        private final int version;
+        private final IR ir;
+        private volatile DefUse du;
+
+        private VersionedIR(int version, IR ir) {
+            this.version = version;
+            this.ir = ir;
+        }
+    }
+}
@@ -21,7 +21,9 @@ import com.ibm.wala.classLoader.IMethod;
 import com.ibm.wala.ipa.callgraph.CGNode;
 import com.ibm.wala.ipa.callgraph.Context;
 import com.ibm.wala.ipa.callgraph.ContextSelector;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
 import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.util.intset.EmptyIntSet;
 import com.ibm.wala.util.intset.IntSet;
 
 
@@ -58,6 +60,7 @@ public class SalsaDelegatingContextSelector implements ContextSelector {
     /**
      * Delegation-based implementation.
      * If the caller is
+     * a synthetic model, context B is used (or no context at all, once the analysis budget collapsed model contexts).
      *
      * @param caller           the node making the invocation
      * @param site             callsite
@@ -70,6 +73,9 @@ public class SalsaDelegatingContextSelector implements ContextSelector {
         if (!builder.isSyntheticModel(caller))
             return A.getCalleeTarget(caller, site, callee, actualParameters);
 
+        if (builder.isCollapseModelContexts())
+            return Everywhere.EVERYWHERE;
+
         return B.getCalleeTarget(caller, site, callee, actualParameters);
     }
 
@@ -78,6 +84,9 @@ public class SalsaDelegatingContextSelector implements ContextSelector {
         if (!builder.isSyntheticModel(caller))
             return A.getRelevantParameters(caller, site);
 
+        if (builder.isCollapseModelContexts())
+            return EmptyIntSet.instance;
+
         return B.getRelevantParameters(caller, site);
     }
 }
@@ -27,6 +27,7 @@ import com.ibm.wala.ipa.callgraph.propagation.*;
 import com.ibm.wala.ipa.callgraph.propagation.cfa.*;
 import com.ibm.wala.ipa.callgraph.propagation.rta.RTAContextInterpreter;
 import edu.rit.se.design.callgraph.analysis.AbstractSerializationCallGraphBuilder;
+import edu.rit.se.design.callgraph.analysis.AnalysisBudget;
 import edu.rit.se.design.callgraph.analysis.PointerAnalysisPolicy;
 import edu.rit.se.design.callgraph.analysis.SerializationPointsToSolver;
 
@@ -83,7 +84,8 @@ public abstract class SalsaSSAPropagationCallGraphBuilder extends AbstractSerial
     protected IPointsToSolver makeSolver() {
         UnsoundSerializationHandler serializationHandler = new UnsoundSerializationHandler(this);
         IPointsToSolver delegateSolver = super.makeSolver();
-        return new SerializationPointsToSolver(system, this, serializationHandler, delegateSolver);
+        budget = new AnalysisBudget(salsaOptions.getTimeBudgetMillis(), salsaOptions.getHeapBudgetBytes());
+        return new SerializationPointsToSolver(system, this, serializationHandler, delegateSolver, solverMetrics, budget);
     }
 
 //</editor-fold>
@@ -375,7 +377,9 @@ public abstract class SalsaSSAPropagationCallGraphBuilder extends AbstractSerial
     }
 
     public boolean isSyntheticModel(CGNode node) {
-        return models.contains(node);
+        if (node == null) return false;
+        int id = node.getGraphNodeId();
+        return id >= 0 && modelNodeIds.get(id);
     }
 
 
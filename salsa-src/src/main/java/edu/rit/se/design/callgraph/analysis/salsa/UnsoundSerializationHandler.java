@@ -22,10 +22,6 @@ import com.ibm.wala.ipa.callgraph.Context;
 import com.ibm.wala.ipa.callgraph.propagation.ConcreteTypeKey;
 import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
 import com.ibm.wala.ipa.callgraph.propagation.PointerKey;
-import com.ibm.wala.ipa.slicer.NormalReturnCaller;
-import com.ibm.wala.ipa.slicer.NormalStatement;
-import com.ibm.wala.ipa.slicer.Slicer;
-import com.ibm.wala.ipa.slicer.Statement;
 import com.ibm.wala.ssa.SSAAbstractInvokeInstruction;
 import com.ibm.wala.ssa.SSACheckCastInstruction;
 import com.ibm.wala.ssa.SSANewInstruction;
@@ -42,19 +38,20 @@ import com.ibm.wala.util.collections.Pair;
 import com.ibm.wala.util.intset.OrdinalSet;
 import edu.rit.se.design.callgraph.analysis.AbstractSerializationCallGraphBuilder;
 import edu.rit.se.design.callgraph.analysis.AbstractSerializationHandler;
+import edu.rit.se.design.callgraph.analysis.SalsaOptions;
+import edu.rit.se.design.callgraph.cast.DefUseCastFinder;
+import edu.rit.se.design.callgraph.cast.ICastFinder;
+import edu.rit.se.design.callgraph.cast.SlicerCastFinder;
 import edu.rit.se.design.callgraph.model.MethodModel;
-import edu.rit.se.design.callgraph.util.NameUtils;
 import edu.rit.se.design.callgraph.util.SerializationUtils;
+import edu.rit.se.design.callgraph.util.SubclassClosureCache;
 import edu.rit.se.design.callgraph.util.TypeCategory;
 import org.apache.commons.lang3.tuple.Triple;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
-import static com.ibm.wala.ipa.slicer.Slicer.ControlDependenceOptions.NONE;
-import static com.ibm.wala.ipa.slicer.Slicer.DataDependenceOptions.REFLECTION;
 import static com.ibm.wala.shrikeBT.IInvokeInstruction.Dispatch.VIRTUAL;
-import static edu.rit.se.design.callgraph.util.NameUtils.*;
+import static edu.rit.se.design.callgraph.util.SerializationCallback.*;
 import static edu.rit.se.design.callgraph.util.TypeCategory.*;
 
 /**
@@ -64,20 +61,67 @@ import static edu.rit.se.design.callgraph.util.TypeCategory.*;
  */
 public class UnsoundSerializationHandler extends AbstractSerializationHandler {
 
+    /**
+     * For each deserialization work item (caller, invoke instruction, target), the downcast types that were already modeled.
+     */
+    protected final Map<Triple<CGNode, SSAAbstractInvokeInstruction, CGNode>, Set<TypeReference>> modeledDeserializations;
+    /**
+     * Strategy for finding the downcasts of deserialized objects
+     */
+    protected final ICastFinder castFinder;
+    /**
+     * Subclasses of the types that deserialized objects are cast to
+     */
+    protected volatile SubclassClosureCache subclassCache;
+
     public UnsoundSerializationHandler(AbstractSerializationCallGraphBuilder builder) {
         super(builder);
+        this.modeledDeserializations = new HashMap<>();
+        this.castFinder = makeCastFinder(builder.getSalsaOptions());
+        this.subclassCache = new SubclassClosureCache(builder.getClassHierarchy(),
+                builder.getSalsaOptions().isSubclassPruning(), builder.getSalsaOptions().getSubclassPruningThreshold());
+    }
+
+    /**
+     * Also prunes the subclasses of cast types (regardless of the options), with the tightened threshold.
+     */
+    @Override
+    public void tightenPruning() {
+        super.tightenPruning();
+        int threshold = Math.min(pruningThreshold, builder.getSalsaOptions().getSubclassPruningThreshold());
+        this.subclassCache = new SubclassClosureCache(builder.getClassHierarchy(), true, threshold);
+    }
+
+    /**
+     * Instantiates the strategy for finding downcasts, as chosen in the options.
+     *
+     * @param options Salsa's options
+     * @return a {@link ICastFinder}
+     */
+    protected ICastFinder makeCastFinder(SalsaOptions options) {
+        switch (options.getCastFinderType()) {
+            case SLICER:
+                return new SlicerCastFinder(builder);
+            case DEF_USE:
+                return new DefUseCastFinder(builder, options.getCastFinderMaxHops());
+            default:
+                throw new UnsupportedOperationException("Unknown cast finder " + options.getCastFinderType());
+        }
     }
 
     @Override
     public void handleSerializationRelatedFeatures(MonitorUtil.IProgressMonitor monitor) {
         try {
             Set<CGNode> changedNodes = HashSetFactory.make();
+            resetCounters();
             handleDeserialization(changedNodes, monitor);
-            ((AbstractSerializationCallGraphBuilder) builder).getDeserializationWorkList().clear();
+            builder.getDeserializationWorkList().clear();
             handleSerialization(changedNodes, monitor);
-            ((AbstractSerializationCallGraphBuilder) builder).getSerializationWorkList().clear();
+            builder.getSerializationWorkList().clear();
             // tag them as changed, so it can go through again the visiting process
             for (CGNode cgNode : changedNodes) builder.addConstraintsFromChangedNode(cgNode, monitor);
+            lastChangedNodes = changedNodes.size();
+            if (monitor != null) monitor.subTask("UnsoundSerializationHandler::" + castFinder);
         } catch (CancelException e) {
             throw new RuntimeException(e);
         }
@@ -92,7 +136,7 @@ public class UnsoundSerializationHandler extends AbstractSerializationHandler {
      * @param monitor      progress monitor (though current implementation does not emit any progress)
      */
     protected void handleSerialization(Set<CGNode> changedNodes, MonitorUtil.IProgressMonitor monitor) {
-        Set<Triple<CGNode, SSAAbstractInvokeInstruction, CGNode>> serializationWorkList = ((AbstractSerializationCallGraphBuilder) builder).getSerializationWorkList();
+        Set<Triple<CGNode, SSAAbstractInvokeInstruction, CGNode>> serializationWorkList = builder.getSerializationWorkList();
         for (Triple<CGNode, SSAAbstractInvokeInstruction, CGNode> triple : serializationWorkList) {
             CGNode caller = triple.getLeft();
             SSAAbstractInvokeInstruction call = triple.getMiddle();
@@ -102,6 +146,7 @@ public class UnsoundSerializationHandler extends AbstractSerializationHandler {
             MethodModel methodModel = ((MethodModel) target.getMethod());
             Context context = target.getContext();
             int previousSize = methodModel.getNumberOfStatements(context);
+            int previousVersion = methodModel.getVersion(context);
 
 
             int topLevelObjectNumber = 2; // v2 is the object parameter passed to the method model
@@ -109,27 +154,28 @@ public class UnsoundSerializationHandler extends AbstractSerializationHandler {
                 TypeReference topLevelReference = site.getDeclaredType();
                 IClass topLevelClass = builder.getClassHierarchy().lookupClass(topLevelReference);
                 // vCast = (T) v2
-                int topLevelCast = methodModel.addCheckcast(context, new TypeReference[]{topLevelReference}, topLevelObjectNumber, true);
+                int topLevelCast = methodModel.ensureCheckcast(context, new TypeReference[]{topLevelReference}, topLevelObjectNumber, true);
 
                 // if class has writeReplace() callback, we mimic its invocation
-                IMethod writeReplaceCallbackMethod = topLevelClass.getMethod(writeReplaceCallbackSelector);
+                IMethod writeReplaceCallbackMethod = callbackIndex.getCallback(topLevelClass, WRITE_REPLACE);
                 if (writeReplaceCallbackMethod != null) {
                     // vCast.writeReplace()
-                    methodModel.addInvocation(context, new int[]{topLevelCast}, writeReplaceCallbackMethod.getReference(), VIRTUAL);
+                    methodModel.ensureInvocation(context, new int[]{topLevelCast}, writeReplaceCallbackMethod.getReference(), VIRTUAL);
                 }
 
                 // if class has writeObject() callback, we mimic its invocation
-                IMethod writeObjectCallbackMethod = topLevelClass.getMethod(writeObjectCallbackSelector);
+                IMethod writeObjectCallbackMethod = callbackIndex.getCallback(topLevelClass, WRITE_OBJECT);
                 if (writeObjectCallbackMethod != null) {
                     // vCast.writeObject(v1)
-                    methodModel.addInvocation(context, new int[]{topLevelCast, 1}, writeObjectCallbackMethod.getReference(), VIRTUAL);
+                    methodModel.ensureInvocation(context, new int[]{topLevelCast, 1}, writeObjectCallbackMethod.getReference(), VIRTUAL);
                 }
                 // handles inner (non-static) fields, including from super classes
                 TypeCategory typeCategory = SerializationUtils.getTypeCategory(builder.cha, topLevelReference);
                 if (typeCategory == OBJECT)
                     handleInnerClassObjects(caller, context, methodModel, site, topLevelClass, topLevelCast);
             }
-            if (previousSize != methodModel.getNumberOfStatements(context)) {
+            if (previousVersion != methodModel.getVersion(context)) {
+                lastStatementsAdded += methodModel.getNumberOfStatements(context) - previousSize;
                 // invalidate previous cache
                 builder.getAnalysisCache().invalidate(methodModel, context);
                 changedNodes.add(target);
@@ -146,13 +192,13 @@ public class UnsoundSerializationHandler extends AbstractSerializationHandler {
             OrdinalSet<InstanceKey> concreteFieldTypes = builder.getPointerAnalysis().getPointsToSet(pkForField);
             // iterate the allocated types for the inner fields
             for (InstanceKey concreteFieldType : concreteFieldTypes) {
-                IMethod innerCallbackMethod = concreteFieldType.getConcreteType().getMethod(writeObjectCallbackSelector);
+                IMethod innerCallbackMethod = callbackIndex.getCallback(concreteFieldType.getConcreteType(), WRITE_OBJECT);
                 if (innerCallbackMethod != null) {
                     // vx = checkcast (ConcreteType)vCast
-                    int varInnerField = methodModel.addGetInstance(context, iField.getReference(), topLevelCast);
-                    int varInnerCast = methodModel.addCheckcast(context, new TypeReference[]{concreteFieldType.getConcreteType().getReference()}, varInnerField, true);
+                    int varInnerField = methodModel.ensureGetInstance(context, iField.getReference(), topLevelCast);
+                    int varInnerCast = methodModel.ensureCheckcast(context, new TypeReference[]{concreteFieldType.getConcreteType().getReference()}, varInnerField, true);
                     // we add the equivalent of v<innerCast>.writeObject(v1)
-                    methodModel.addInvocation(context, new int[]{varInnerCast, 1}, innerCallbackMethod.getReference(), VIRTUAL);
+                    methodModel.ensureInvocation(context, new int[]{varInnerCast, 1}, innerCallbackMethod.getReference(), VIRTUAL);
                 }
             }
         }
@@ -189,97 +235,71 @@ public class UnsoundSerializationHandler extends AbstractSerializationHandler {
 
     /**
      * Makes changes to the models, adding the instructions needed for tricking the pointer analysis to tame with object deserialization.
+     * Work items are modeled incrementally: only the downcasts that were not modeled in previous iterations are added to the model.
      *
      * @param changedNodes (acts as an output) it adds to the set nodes that were modified and need to be re-analyzed by the pointer analysis engine.
      * @param monitor      progress monitor (though current implementation does not emit any progress)
      */
     protected void handleDeserialization(Set<CGNode> changedNodes, MonitorUtil.IProgressMonitor monitor) throws CancelException {
 
-        for (Triple<CGNode, SSAAbstractInvokeInstruction, CGNode> triple : ((AbstractSerializationCallGraphBuilder) builder).getDeserializationWorkList()) {
+        for (Triple<CGNode, SSAAbstractInvokeInstruction, CGNode> triple : builder.getDeserializationWorkList()) {
 
             CGNode caller = triple.getLeft();
             SSAAbstractInvokeInstruction call = triple.getMiddle();
             CGNode target = triple.getRight();
-            // compute slices to find downcasts
-            NormalReturnCaller st = new NormalReturnCaller(caller, call.iIndex());
-            Collection<Statement> slice = Slicer.computeForwardSlice(st, builder.getCallGraph(), builder.getPointerAnalysis(), REFLECTION, NONE);
-            Set<SSACheckCastInstruction> casts = slice.stream()
-                    .filter(s ->
-                            s.getKind() == Statement.Kind.NORMAL &&
-                                    (((NormalStatement) s).getInstruction() instanceof SSACheckCastInstruction))
-                    .map(s -> (SSACheckCastInstruction) ((NormalStatement) s).getInstruction())
-                    .collect(Collectors.toSet());
-
+            // find downcasts applied to the deserialized object
+            Set<SSACheckCastInstruction> casts = castFinder.findCasts(caller, call);
+            Set<TypeReference> castTypes = new LinkedHashSet<>();
+            for (SSACheckCastInstruction cast : casts)
+                castTypes.addAll(Arrays.asList(cast.getDeclaredResultTypes()));
+
+            // the cast types that were already modeled for this work item (null if it was never modeled before)
+            Set<TypeReference> modeledTypes = modeledDeserializations.get(triple);
+            boolean isNewWorkItem = modeledTypes == null;
+            // the work item is re-added on every dispatch of its call site, it is skipped unless it has new downcasts
+            if (!isNewWorkItem && modeledTypes.containsAll(castTypes)) continue;
+            if (isNewWorkItem) {
+                modeledTypes = new HashSet<>();
+                modeledDeserializations.put(triple, modeledTypes);
+            }
 
             MethodModel methodModel = ((MethodModel) target.getMethod());
             Context context = target.getContext();
-            ArrayList<Integer> returnValues = new ArrayList<>();
-            for (SSACheckCastInstruction cast : casts) {
-                Arrays.asList(cast.getDeclaredResultTypes()).stream()
-                        .map(typeReference -> builder.getClassHierarchy().lookupClass(typeReference))
-                        .filter(klass -> klass != null)
-                        .forEach(c -> {
-                            Collection<IClass> subClasses = builder.cha.computeSubClasses(c.getReference());
-                            for (IClass klass : subClasses) {
-                                SSANewInstruction ssaNewInstruction = methodModel.addAllocation(context, klass.getReference());
-                                returnValues.add(ssaNewInstruction.getDef());
-
-                                // if class implements the readObject() callback, invokes it
-                                IMethod readObjectCallbackMethod = klass.getMethod(NameUtils.readObjectCallbackSelector);
-                                if (readObjectCallbackMethod != null) {
-                                    methodModel.addInvocation(context, new int[]{ssaNewInstruction.getDef(), 1}, readObjectCallbackMethod.getReference(), VIRTUAL);
-                                }
-
-                                // if class implements the readObjectNoData() callback, invokes it
-                                IMethod readObjectNoDataCallbackMethod = klass.getMethod(readObjectNoDataCallbackSelector);
-                                if (readObjectNoDataCallbackMethod != null) {
-                                    methodModel.addInvocation(context, new int[]{ssaNewInstruction.getDef(), 1}, readObjectNoDataCallbackMethod.getReference(), VIRTUAL);
-                                }
-
-                                // if class implements the readResolve() callback, invokes it
-                                IMethod readResolveCallbackMethod = klass.getMethod(NameUtils.readResolveCallbackSelector);
-                                if (readResolveCallbackMethod != null) {
-                                    methodModel.addInvocation(context, new int[]{ssaNewInstruction.getDef()}, readResolveCallbackMethod.getReference(), VIRTUAL);
-                                }
-
-                                // if class implements the validateObject() callback, invokes it
-                                IMethod validateObjectCallbackMethod = klass.getMethod(validateObjectCallbackSelector);
-                                if (validateObjectCallbackMethod != null) {
-                                    methodModel.addInvocation(context, new int[]{ssaNewInstruction.getDef()}, validateObjectCallbackMethod.getReference(), VIRTUAL);
-                                }
-
-
-                                // handles inner (non-static) fields, including from super classes
-                                TypeCategory typeCategory = SerializationUtils.getTypeCategory(builder.cha, klass.getReference());
-                                if (typeCategory == OBJECT)
-                                    handleInnerDeserializedObjects(caller, context, target, klass, ssaNewInstruction);
-                            }
-                        });
+            int previousSize = methodModel.getNumberOfStatements(context);
+            int previousVersion = methodModel.getVersion(context);
+            // objects allocated for this work item in this round (objects allocated in previous rounds are already returned)
+            Set<Integer> returnValues = new LinkedHashSet<>();
+            for (TypeReference typeReference : castTypes) {
+                // skips downcasts that are already part of the model
+                if (!modeledTypes.add(typeReference)) continue;
+                IClass c = builder.getClassHierarchy().lookupClass(typeReference);
+                if (c == null) continue;
+                for (IClass klass : subclassCache.getSubClasses(c)) {
+                    // handles inner (non-static) fields, including from super classes
+                    TypeCategory typeCategory = SerializationUtils.getTypeCategory(builder.cha, klass.getReference());
+                    modelDeserializedObject(caller, target, methodModel, context, klass, true, typeCategory == OBJECT, returnValues);
+                }
             }
 
-            if (casts.isEmpty()) {
-                Collection<IClass> subClasses = builder.cha.computeSubClasses(caller.getMethod().getDeclaringClass().getReference());
+            if (casts.isEmpty() && isNewWorkItem) {
                 //if we hit here, means the call came from an inner callback, this below is a workaround!
                 IClass klass = caller.getMethod().getDeclaringClass();
-                SSANewInstruction ssaNewInstruction = methodModel.addAllocation(context, klass.getReference());
-                returnValues.add(ssaNewInstruction.getDef());
-                IMethod readObjectCallbackMethod = klass.getMethod(NameUtils.readObjectCallbackSelector);
-                if (readObjectCallbackMethod != null) {
-                    methodModel.addInvocation(context, new int[]{ssaNewInstruction.getDef(), 1}, readObjectCallbackMethod.getReference(), VIRTUAL);
-                }
                 // handles inner (non-static) fields, including from super classes
                 TypeCategory typeCategory = SerializationUtils.getTypeCategory(builder.cha, klass.getReference());
-                if (typeCategory != PRIMITIVE && typeCategory != IGNORED && typeCategory != ARRAY)
-                    handleInnerDeserializedObjects(caller, context, target, klass, ssaNewInstruction);
+                boolean hasInnerFields = typeCategory != PRIMITIVE && typeCategory != IGNORED && typeCategory != ARRAY;
+                modelDeserializedObject(caller, target, methodModel, context, klass, false, hasInnerFields, returnValues);
             }
 
             if (returnValues.size() > 1) {
-                SSAPhiInstruction phi = methodModel.addPhi(context, returnValues);
+                SSAPhiInstruction phi = methodModel.addPhi(context, new ArrayList<>(returnValues));
                 methodModel.addReturnObject(context, phi.getDef());
-            } else /*if (returnValues.size() == 1)*/ {
-                methodModel.addReturnObject(context, returnValues.get(0));
+            } else if (returnValues.size() == 1) {
+                methodModel.addReturnObject(context, returnValues.iterator().next());
             }
-            // invalidate the cache
+            lastStatementsAdded += methodModel.getNumberOfStatements(context) - previousSize;
+            // the model did not change since the last time this work item was modeled
+            if (previousVersion == methodModel.getVersion(context)) continue;
+            // invalidate the cache (the IR is only rebuilt because the model changed)
             builder.getAnalysisCache().invalidate(target.getMethod(), target.getContext());
 
             // mark node as modified to be re-traversed
@@ -287,6 +307,44 @@ public class UnsoundSerializationHandler extends AbstractSerializationHandler {
         }
     }
 
+    /**
+     * Adds to the model the allocation of a deserialized class and the invocation of its callbacks (unless they are already in the model).
+     *
+     * @param allCallbacks   whether all the readObject(), readObjectNoData(), readResolve() and validateObject() callbacks are invoked (otherwise, only readObject())
+     * @param hasInnerFields whether the inner fields of the object have to be modeled as well
+     * @param returnValues   (acts as an output) it adds the value number of the object if it was not allocated before
+     */
+    private void modelDeserializedObject(CGNode caller, CGNode target, MethodModel methodModel, Context context, IClass klass,
+                                         boolean allCallbacks, boolean hasInnerFields, Set<Integer> returnValues) {
+        int previousSize = methodModel.getNumberOfStatements(context);
+        SSANewInstruction ssaNewInstruction = methodModel.ensureAllocation(context, klass.getReference());
+        int object = ssaNewInstruction.getDef();
+        if (previousSize != methodModel.getNumberOfStatements(context)) returnValues.add(object);
+
+        // if class implements the readObject() callback, invokes it
+        IMethod readObjectCallbackMethod = callbackIndex.getCallback(klass, READ_OBJECT);
+        if (readObjectCallbackMethod != null)
+            methodModel.ensureInvocation(context, new int[]{object, 1}, readObjectCallbackMethod.getReference(), VIRTUAL);
+
+        if (allCallbacks) {
+            // if class implements the readObjectNoData() callback, invokes it
+            IMethod readObjectNoDataCallbackMethod = callbackIndex.getCallback(klass, READ_OBJECT_NO_DATA);
+            if (readObjectNoDataCallbackMethod != null)
+                methodModel.ensureInvocation(context, new int[]{object, 1}, readObjectNoDataCallbackMethod.getReference(), VIRTUAL);
+            // if class implements the readResolve() callback, invokes it
+            IMethod readResolveCallbackMethod = callbackIndex.getCallback(klass, READ_RESOLVE);
+            if (readResolveCallbackMethod != null)
+                methodModel.ensureInvocation(context, new int[]{object}, readResolveCallbackMethod.getReference(), VIRTUAL);
+            // if class implements the validateObject() callback, invokes it
+            IMethod validateObjectCallbackMethod = callbackIndex.getCallback(klass, VALIDATE_OBJECT);
+            if (validateObjectCallbackMethod != null)
+                methodModel.ensureInvocation(context, new int[]{object}, validateObjectCallbackMethod.getReference(), VIRTUAL);
+        }
+
+        if (hasInnerFields)
+            handleInnerDeserializedObjects(caller, context, target, klass, ssaNewInstruction);
+    }
+
 
     protected void handleInnerDeserializedObjects(CGNode caller, Context context, CGNode target, IClass klass, SSANewInstruction ssaNewInstruction) {
         MethodModel methodModel = ((MethodModel) target.getMethod());
@@ -302,22 +360,19 @@ public class UnsoundSerializationHandler extends AbstractSerializationHandler {
             IClass iFieldStaticType = builder.cha.lookupClass(fieldTypeRef);
             if (isCollection) iFieldStaticType = extractGenericType(iField);
 
-            PointerKey pkForField = builder.getPointerKeyForInstanceField(topObjIk, iField);
-            Set<IClass> possibleTypes = SerializationUtils.computePossibleTypes(builder.cha, klass, iFieldStaticType, serializableClasses, true, 100);
+            Set<IClass> possibleTypes = possibleTypesCache.computePossibleTypes(klass, iFieldStaticType, true, pruningThreshold);
             for (IClass concreteFieldType : possibleTypes) {
-                IMethod innerCallbackMethod = concreteFieldType.getMethod(readObjectCallbackSelector);
+                IMethod innerCallbackMethod = callbackIndex.getCallback(concreteFieldType, READ_OBJECT);
                 if (innerCallbackMethod != null) {
-
-//                    builder.getSystem().newConstraint(pkForField, new ConcreteTypeKey(concreteFieldType));
-                    // vx = checkcast (ConcreteType)vCast
-                    int varInnerField = methodModel.addGetInstance(context, iField.getReference(), ssaNewInstruction.getDef());
-                    builder.getSystem().newConstraint(builder.getPointerKeyForLocal(target, varInnerField), new ConcreteTypeKey(concreteFieldType));
-                    int varInnerCast = methodModel.addCheckcast(context, new TypeReference[]{concreteFieldType.getReference()}, varInnerField, true);
-                    // we add the equivalent of v<innerCast>.writeObject(v1)
-                    methodModel.addInvocation(context, new int[]{varInnerCast, 1}, innerCallbackMethod.getReference(), VIRTUAL);
+                    // vx = checkcast (ConcreteType)vCast
+                    int varInnerField = methodModel.ensureGetInstance(context, iField.getReference(), ssaNewInstruction.getDef());
+                    if (builder.getSystem().newConstraint(builder.getPointerKeyForLocal(target, varInnerField), new ConcreteTypeKey(concreteFieldType)))
+                        lastConstraintsAdded++;
+                    int varInnerCast = methodModel.ensureCheckcast(context, new TypeReference[]{concreteFieldType.getReference()}, varInnerField, true);
+                    // we add the equivalent of v<innerCast>.readObject(v1)
+                    methodModel.ensureInvocation(context, new int[]{varInnerCast, 1}, innerCallbackMethod.getReference(), VIRTUAL);
                 }
             }
-
         }
     }
 
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.cast;
+
+
+/**
+ * Enumerates the available strategies for discovering downcasts of deserialized objects.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public enum CastFinderType {
+    SLICER, // precise: forward slice over the whole call graph (see SlicerCastFinder)
+    DEF_USE; // fast: def-use chains with bounded inter-procedural hops (see DefUseCastFinder)
+
+    /**
+     * Parses a command line value (e.g., "slicer" or "def-use").
+     *
+     * @param value the value to be parsed
+     * @return the matching {@link CastFinderType}
+     */
+    public static CastFinderType parse(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
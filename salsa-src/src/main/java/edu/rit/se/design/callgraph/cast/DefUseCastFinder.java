@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.cast;
+
+import com.ibm.wala.classLoader.CallSiteReference;
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IField;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ssa.*;
+import com.ibm.wala.types.FieldReference;
+import com.ibm.wala.util.collections.Pair;
+
+import java.util.*;
+
+/**
+ * Fast strategy: follows the def-use chains of the returned value within the caller (through phis and casts)
+ * and performs a bounded number of inter-procedural hops, namely:
+ * <ul>
+ *     <li>from a returned value to the invocations of the enclosing method;</li>
+ *     <li>from an argument to the corresponding parameter of the invoked methods;</li>
+ *     <li>from a value stored in a field to the reads of that field within the field's declaring class.</li>
+ * </ul>
+ * It does not require the pointer analysis, so it is much cheaper (yet less precise) than the {@link SlicerCastFinder}.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class DefUseCastFinder implements ICastFinder {
+
+    public static final int DEFAULT_MAX_HOPS = 2;
+
+    protected final SSAPropagationCallGraphBuilder builder;
+    /**
+     * maximum number of inter-procedural hops
+     */
+    protected final int maxHops;
+
+    public DefUseCastFinder(SSAPropagationCallGraphBuilder builder, int maxHops) {
+        if (maxHops < 0) throw new IllegalArgumentException("maxHops cannot be negative");
+        this.builder = builder;
+        this.maxHops = maxHops;
+    }
+
+    public DefUseCastFinder(SSAPropagationCallGraphBuilder builder) {
+        this(builder, DEFAULT_MAX_HOPS);
+    }
+
+    @Override
+    public Set<SSACheckCastInstruction> findCasts(CGNode caller, SSAAbstractInvokeInstruction call) {
+        Set<SSACheckCastInstruction> casts = new HashSet<>();
+        if (!call.hasDef()) return casts;
+
+        CallGraph cg = builder.getCallGraph();
+        Map<FieldReference, List<Value>> fieldReads = new HashMap<>();
+        Set<Pair<CGNode, Integer>> visited = new HashSet<>();
+        Deque<Value> worklist = new ArrayDeque<>();
+        worklist.add(new Value(caller, call.getDef(), 0));
+
+        while (!worklist.isEmpty()) {
+            Value value = worklist.poll();
+            if (!visited.add(Pair.make(value.node, value.valueNumber))) continue;
+            DefUse du = value.node.getDU();
+            if (du == null) continue;
+
+            Iterator<SSAInstruction> uses = du.getUses(value.valueNumber);
+            while (uses.hasNext()) {
+                SSAInstruction use = uses.next();
+                if (use instanceof SSACheckCastInstruction) {
+                    casts.add((SSACheckCastInstruction) use);
+                    worklist.add(new Value(value.node, use.getDef(), value.hops));
+                } else if (use instanceof SSAPhiInstruction) {
+                    worklist.add(new Value(value.node, use.getDef(), value.hops));
+                } else if (value.hops < maxHops) {
+                    if (use instanceof SSAReturnInstruction) {
+                        addCallersReturnValues(cg, value, worklist);
+                    } else if (use instanceof SSAPutInstruction && ((SSAPutInstruction) use).getVal() == value.valueNumber) {
+                        FieldReference field = ((SSAPutInstruction) use).getDeclaredField();
+                        for (Value read : fieldReads.computeIfAbsent(field, f -> findFieldReads(cg, f)))
+                            worklist.add(new Value(read.node, read.valueNumber, value.hops + 1));
+                    } else if (use instanceof SSAAbstractInvokeInstruction) {
+                        addCalleesParameters(cg, value, (SSAAbstractInvokeInstruction) use, worklist);
+                    }
+                }
+            }
+        }
+        return casts;
+    }
+
+    /**
+     * Hop from a returned value to the values defined by the invocations of its enclosing method.
+     */
+    private void addCallersReturnValues(CallGraph cg, Value value, Deque<Value> worklist) {
+        Iterator<CGNode> callers = cg.getPredNodes(value.node);
+        while (callers.hasNext()) {
+            CGNode caller = callers.next();
+            IR ir = caller.getIR();
+            if (ir == null) continue;
+            Iterator<CallSiteReference> sites = cg.getPossibleSites(caller, value.node);
+            while (sites.hasNext()) {
+                for (SSAAbstractInvokeInstruction call : ir.getCalls(sites.next())) {
+                    if (call.hasDef())
+                        worklist.add(new Value(caller, call.getDef(), value.hops + 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Hop from an argument to the corresponding parameters of the possible targets of an invocation.
+     */
+    private void addCalleesParameters(CallGraph cg, Value value, SSAAbstractInvokeInstruction call, Deque<Value> worklist) {
+        for (int i = 0; i < call.getNumberOfUses(); i++) {
+            if (call.getUse(i) != value.valueNumber) continue;
+            for (CGNode callee : cg.getPossibleTargets(value.node, call.getCallSite())) {
+                IR ir = callee.getIR();
+                if (ir != null && i < ir.getNumberOfParameters())
+                    worklist.add(new Value(callee, ir.getParameter(i), value.hops + 1));
+            }
+        }
+    }
+
+    /**
+     * Finds the reads of a field within the methods of its declaring class.
+     */
+    private List<Value> findFieldReads(CallGraph cg, FieldReference fieldReference) {
+        List<Value> reads = new ArrayList<>();
+        IClassHierarchy cha = builder.getClassHierarchy();
+        IField field = cha.resolveField(fieldReference);
+        if (field == null) return reads;
+        IClass declaringClass = field.getDeclaringClass();
+        for (IMethod method : declaringClass.getDeclaredMethods()) {
+            for (CGNode node : cg.getNodes(method.getReference())) {
+                IR ir = node.getIR();
+                if (ir == null) continue;
+                for (SSAInstruction instruction : ir.getInstructions()) {
+                    if (instruction instanceof SSAGetInstruction) {
+                        FieldReference read = ((SSAGetInstruction) instruction).getDeclaredField();
+                        if (read.equals(fieldReference) || field.equals(cha.resolveField(read)))
+                            reads.add(new Value(node, instruction.getDef(), 0));
+                    }
+                }
+            }
+        }
+        return reads;
+    }
+
+    @Override
+    public String toString() {
+        return "DefUseCastFinder{maxHops=" + maxHops + '}';
+    }
+
+    /**
+     * A value number within a call graph node, and how many hops it took to reach it.
+     */
+    private static class Value {
+        private final CGNode node;
+        private final int valueNumber;
+        private final int hops;
+
+        private Value(CGNode node, int valueNumber, int hops) {
+            this.node = node;
+            this.valueNumber = valueNumber;
+            this.hops = hops;
+        }
+    }
+}
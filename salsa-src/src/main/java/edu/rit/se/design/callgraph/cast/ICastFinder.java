@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.cast;
+
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ssa.SSAAbstractInvokeInstruction;
+import com.ibm.wala.ssa.SSACheckCastInstruction;
+import com.ibm.wala.util.CancelException;
+
+import java.util.Set;
+
+/**
+ * Finds the downcasts applied to the object returned by a method invocation (e.g., <code>(T) ois.readObject()</code>).
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public interface ICastFinder {
+
+    /**
+     * Computes the downcasts that the value returned by an invocation flows into.
+     *
+     * @param caller the node that has the invocation instruction
+     * @param call   invoke instruction
+     * @return the set of checkcast instructions reached by the returned value
+     * @throws CancelException if the computation was canceled
+     */
+    Set<SSACheckCastInstruction> findCasts(CGNode caller, SSAAbstractInvokeInstruction call) throws CancelException;
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.cast;
+
+import com.ibm.wala.classLoader.CallSiteReference;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.propagation.PointerAnalysis;
+import com.ibm.wala.ipa.callgraph.propagation.PointerKey;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.slicer.HeapStatement;
+import com.ibm.wala.ipa.slicer.NormalReturnCaller;
+import com.ibm.wala.ipa.slicer.NormalStatement;
+import com.ibm.wala.ipa.slicer.Slicer;
+import com.ibm.wala.ipa.slicer.Statement;
+import com.ibm.wala.ssa.SSAAbstractInvokeInstruction;
+import com.ibm.wala.ssa.SSACheckCastInstruction;
+import com.ibm.wala.ssa.SSAInstruction;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.collections.Pair;
+import edu.rit.se.design.callgraph.model.MethodModel;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static com.ibm.wala.ipa.slicer.Slicer.ControlDependenceOptions.NONE;
+import static com.ibm.wala.ipa.slicer.Slicer.DataDependenceOptions.REFLECTION;
+
+/**
+ * Precise strategy: computes a forward slice (data dependencies only) from the returned value over the whole call graph,
+ * using the current points-to information, and collects the checkcast instructions in it.
+ * <p>
+ * The casts found for a call site are cached across solver iterations. An entry is only recomputed when anything the slice
+ * read grew: the points-to sets of the values used or defined in the slice (including the base pointers of field accesses),
+ * the heap locations it goes through, the call graph edges (per call site) into and out of its nodes, or the statements of
+ * the synthetic models in it. Slices that go through the heap are also recomputed whenever the call graph gets new nodes,
+ * because a new node may read a heap location that the slice wrote.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class SlicerCastFinder implements ICastFinder {
+
+    protected final SSAPropagationCallGraphBuilder builder;
+    /**
+     * (caller, call iIndex) -> casts found in the forward slice of the returned value
+     */
+    private final Map<Pair<CGNode, Integer>, CachedSlice> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong nanosSaved = new AtomicLong();
+
+    public SlicerCastFinder(SSAPropagationCallGraphBuilder builder) {
+        this.builder = builder;
+        this.cache = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Set<SSACheckCastInstruction> findCasts(CGNode caller, SSAAbstractInvokeInstruction call) throws CancelException {
+        Pair<CGNode, Integer> key = Pair.make(caller, call.iIndex());
+        CachedSlice cached = cache.get(key);
+        if (cached != null) {
+            if (cached.inputSize == computeInputSize(cached.pointerKeys, cached.nodes, cached.throughHeap)) {
+                hits.incrementAndGet();
+                nanosSaved.addAndGet(cached.nanos);
+                return cached.casts;
+            }
+            invalidations.incrementAndGet();
+        }
+        misses.incrementAndGet();
+
+        long start = System.nanoTime();
+        NormalReturnCaller st = new NormalReturnCaller(caller, call.iIndex());
+        Collection<Statement> slice = Slicer.computeForwardSlice(st, builder.getCallGraph(), builder.getPointerAnalysis(), REFLECTION, NONE);
+        Set<SSACheckCastInstruction> casts = Collections.unmodifiableSet(slice.stream()
+                .filter(s ->
+                        s.getKind() == Statement.Kind.NORMAL &&
+                                (((NormalStatement) s).getInstruction() instanceof SSACheckCastInstruction))
+                .map(s -> (SSACheckCastInstruction) ((NormalStatement) s).getInstruction())
+                .collect(Collectors.toSet()));
+        Set<PointerKey> pointerKeys = computePointerKeys(slice);
+        Set<CGNode> nodes = slice.stream().map(Statement::getNode).collect(Collectors.toSet());
+        boolean throughHeap = slice.stream().anyMatch(s -> s instanceof HeapStatement);
+        cache.put(key, new CachedSlice(casts, pointerKeys, nodes, throughHeap, computeInputSize(pointerKeys, nodes, throughHeap), System.nanoTime() - start));
+        return casts;
+    }
+
+    /**
+     * @param slice a forward slice
+     * @return the pointer keys for the locals used or defined in the slice and for the heap locations it goes through
+     */
+    private Set<PointerKey> computePointerKeys(Collection<Statement> slice) {
+        Set<PointerKey> pointerKeys = new HashSet<>();
+        for (Statement s : slice) {
+            if (s instanceof HeapStatement) {
+                pointerKeys.add(((HeapStatement) s).getLocation());
+            } else if (s.getKind() == Statement.Kind.NORMAL) {
+                SSAInstruction instruction = ((NormalStatement) s).getInstruction();
+                for (int i = 0; i < instruction.getNumberOfDefs(); i++)
+                    pointerKeys.add(builder.getPointerKeyForLocal(s.getNode(), instruction.getDef(i)));
+                // e.g., base pointers of field accesses and receivers of invocations
+                for (int i = 0; i < instruction.getNumberOfUses(); i++)
+                    if (instruction.getUse(i) > 0)
+                        pointerKeys.add(builder.getPointerKeyForLocal(s.getNode(), instruction.getUse(i)));
+            }
+        }
+        return pointerKeys;
+    }
+
+    /**
+     * Points-to sets, call graph edges and models only grow during the analysis, so the sum of their sizes is enough to tell
+     * whether the inputs of a slice changed.
+     *
+     * @param pointerKeys pointer keys used by the slice
+     * @param nodes       nodes in the slice
+     * @param throughHeap whether the slice has heap statements
+     * @return the total size of the points-to sets of the pointer keys, plus the number of call targets (per call site) from
+     * and to the nodes, plus the versions of the models in the slice (plus the number of call graph nodes, if the slice
+     * goes through the heap)
+     */
+    private long computeInputSize(Set<PointerKey> pointerKeys, Set<CGNode> nodes, boolean throughHeap) {
+        PointerAnalysis<InstanceKey> pointerAnalysis = builder.getPointerAnalysis();
+        CallGraph cg = builder.getCallGraph();
+        // readers of the heap locations written by the slice may be in nodes that are not part of it yet
+        long size = throughHeap ? cg.getNumberOfNodes() : 0;
+        for (PointerKey pk : pointerKeys)
+            size += pointerAnalysis.getPointsToSet(pk).size();
+        for (CGNode n : nodes) {
+            for (Iterator<CallSiteReference> sites = n.iterateCallSites(); sites.hasNext(); )
+                size += cg.getNumberOfTargets(n, sites.next());
+            for (Iterator<CGNode> preds = cg.getPredNodes(n); preds.hasNext(); )
+                for (Iterator<CallSiteReference> sites = cg.getPossibleSites(preds.next(), n); sites.hasNext(); sites.next())
+                    size++;
+            if (n.getMethod() instanceof MethodModel)
+                size += ((MethodModel) n.getMethod()).getVersion(n.getContext());
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * @return the time spent computing the slices that were answered from the cache (in milliseconds)
+     */
+    public long getTimeSaved() {
+        return nanosSaved.get() / 1_000_000L;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SlicerCastFinder{size=%d, hits=%d, misses=%d, invalidations=%d, timeSaved=%dms}",
+                cache.size(), getHits(), getMisses(), getInvalidations(), getTimeSaved());
+    }
+
+    /**
+     * Casts found in a slice, along with what is needed for checking whether the slice is stale.
+     */
+    private static class CachedSlice {
+        private final Set<SSACheckCastInstruction> casts;
+        private final Set<PointerKey> pointerKeys;
+        private final Set<CGNode> nodes;
+        private final boolean throughHeap;
+        private final long inputSize;
+        private final long nanos;
+
+        private CachedSlice(Set<SSACheckCastInstruction> casts, Set<PointerKey> pointerKeys, Set<CGNode> nodes, boolean throughHeap, long inputSize, long nanos) {
+            this.casts = casts;
+            this.pointerKeys = pointerKeys;
+            this.nodes = nodes;
+            this.throughHeap = throughHeap;
+            this.inputSize = inputSize;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.event;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A timed phase of the analysis (e.g., building the class hierarchy, a solver round, saving the call graph),
+ * along with counters measured at the end of the phase.
+ * Timestamps come from {@link System#nanoTime()}, hence they are only comparable within the same JVM.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class AnalysisEvent {
+
+    // phase names
+    public static final String SCOPE = "scope";
+    public static final String CLASS_HIERARCHY = "class-hierarchy";
+    public static final String SOLVER_ROUND = "solver-round";
+    public static final String CALL_GRAPH = "call-graph";
+    public static final String SERIALIZER = "serializer";
+
+    // counter names
+    public static final String ROUND = "round";
+    public static final String CLASSES = "classes";
+    public static final String CG_NODES = "cgNodes";
+    public static final String CG_EDGES = "cgEdges";
+    public static final String POINTER_KEYS = "pointerKeys";
+    public static final String INSTANCE_KEYS = "instanceKeys";
+    public static final String CONSTRAINTS_ADDED = "constraintsAdded";
+    public static final String MODEL_STATEMENTS = "modelStatements";
+    public static final String OUTPUT_BYTES = "outputBytes";
+
+    private final String phase;
+    /**
+     * what the phase was about (e.g., the JAR file or the output format); it may be null
+     */
+    private final String subject;
+    /**
+     * file written by the phase (e.g., the saved call graph); it may be null
+     */
+    private String output;
+    private final long startNanos;
+    private final long endNanos;
+    private final Map<String, Long> counters = new LinkedHashMap<>();
+
+    public AnalysisEvent(String phase, String subject, long startNanos, long endNanos) {
+        if (phase == null) throw new IllegalArgumentException("phase cannot be null");
+        if (endNanos < startNanos) throw new IllegalArgumentException("endNanos cannot precede startNanos");
+        this.phase = phase;
+        this.subject = subject;
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+    }
+
+    /**
+     * Adds (or replaces) a counter.
+     *
+     * @return this event
+     */
+    public AnalysisEvent withCounter(String name, long value) {
+        counters.put(name, value);
+        return this;
+    }
+
+    /**
+     * Sets the file written by the phase.
+     *
+     * @return this event
+     */
+    public AnalysisEvent withOutput(String output) {
+        this.output = output;
+        return this;
+    }
+
+    /**
+     * @return a copy of this event about another subject
+     */
+    public AnalysisEvent withSubject(String subject) {
+        AnalysisEvent copy = new AnalysisEvent(phase, subject, startNanos, endNanos);
+        copy.output = output;
+        copy.counters.putAll(counters);
+        return copy;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    public Map<String, Long> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    @Override
+    public String toString() {
+        return "AnalysisEvent{" +
+                "phase='" + phase + '\'' +
+                ", subject='" + subject + '\'' +
+                ", output='" + output + '\'' +
+                ", duration=" + getDurationNanos() / 1_000_000L + "ms" +
+                ", counters=" + counters +
+                '}';
+    }
+}
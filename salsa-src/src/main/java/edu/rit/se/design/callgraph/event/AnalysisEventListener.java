@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.event;
+
+/**
+ * Receives the {@link AnalysisEvent}s emitted while a call graph is built and saved.
+ * Implementations may be called from several threads (e.g., in batch mode), so they must be thread-safe.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+@FunctionalInterface
+public interface AnalysisEventListener {
+
+    /**
+     * Listener that ignores all events
+     */
+    AnalysisEventListener NONE = event -> {
+    };
+
+    void onEvent(AnalysisEvent event);
+
+    /**
+     * @return a listener that forwards events to this one, filling in the subject of events that have none
+     * (e.g., to tell apart the solver rounds of jars analyzed concurrently)
+     */
+    default AnalysisEventListener forSubject(String subject) {
+        if (this == NONE) return NONE;
+        return event -> onEvent(event.getSubject() == null ? event.withSubject(subject) : event);
+    }
+}
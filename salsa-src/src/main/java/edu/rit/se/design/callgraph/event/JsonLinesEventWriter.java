@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.event;
+
+import com.google.gson.Gson;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes each event as a JSON object in its own line, e.g.:
+ * <pre>{"phase":"solver-round","startNanos":...,"endNanos":...,"counters":{"round":1,"cgNodes":1234,...}}</pre>
+ * Lines are flushed as soon as they are written, so the stream can be tailed while the analysis runs.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class JsonLinesEventWriter implements AnalysisEventListener, Closeable {
+
+    private final Gson gson = new Gson();
+    private final Writer writer;
+
+    public JsonLinesEventWriter(Writer writer) {
+        if (writer == null) throw new IllegalArgumentException("writer cannot be null");
+        this.writer = writer;
+    }
+
+    /**
+     * @param outputFile where the events are written (the file is overwritten)
+     */
+    public JsonLinesEventWriter(File outputFile) throws IOException {
+        this(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public synchronized void onEvent(AnalysisEvent event) {
+        try {
+            writer.write(gson.toJson(event));
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -29,10 +29,9 @@ import com.ibm.wala.types.MethodReference;
 import com.ibm.wala.types.Selector;
 import com.ibm.wala.types.TypeReference;
 import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.Pair;
 import com.ibm.wala.util.warnings.Warning;
 import com.ibm.wala.util.warnings.Warnings;
-import org.apache.commons.lang3.tuple.ImmutableTriple;
-import org.apache.commons.lang3.tuple.Triple;
 
 import java.util.*;
 
@@ -51,11 +50,8 @@ public class MethodModel extends SyntheticMethod {
     private final int initialNextLocal;
     protected TypeReference[] exceptions;
 
-//    private final List<SSAInstruction> statements;
-//    private Map<ConstantValue, Integer> constant2ValueNumber = HashMapFactory.make();
-//    public int nextLocal;
-    // <statements, constant2ValueNumber, nextLocal>
-    private Map<Context, Triple<List<SSAInstruction>, Map<ConstantValue, Integer>, Integer>> statementsPerContext;
+    // per-context statements, constants and next value number
+    private Map<Context, ContextModel> statementsPerContext;
 
 
     public MethodModel(Selector selector, TypeReference[] declaredExceptions, IClass declaringClass, IClassHierarchy cha, AnalysisOptions options, IAnalysisCacheView cache) {
@@ -79,34 +75,58 @@ public class MethodModel extends SyntheticMethod {
         return NO_STATEMENTS;
     }
 
-
+    /**
+     * @param c context
+     * @return the statements of the model for this context (the array is shared until the model changes, thus it must not be modified)
+     */
     public SSAInstruction[] getStatements(Context c) {
-        Triple<List<SSAInstruction>, Map<ConstantValue, Integer>, Integer> triple = statementsPerContext.getOrDefault(c, new ImmutableTriple<>(new ArrayList<>(), new HashMap<>(), initialNextLocal));
-        List<SSAInstruction> statements = triple.getLeft();
-        SSAInstruction[] instructions = new SSAInstruction[statements.size()];
-        statements.toArray(instructions);
-        return instructions;
+        ContextModel model = statementsPerContext.get(c);
+        return model == null ? NO_STATEMENTS : model.toArray();
     }
 
     public boolean isModelComputed(Context c) {
         return statementsPerContext.containsKey(c);
     }
 
+    /**
+     * The version of the model for a given context is incremented whenever a statement is added to it.
+     *
+     * @param c context
+     * @return the current version of the model for this context (0 if it has no statements)
+     */
+    public int getVersion(Context c) {
+        ContextModel model = statementsPerContext.get(c);
+        return model == null ? 0 : model.version;
+    }
+
+    /**
+     * @param c context
+     * @return the (mutable) state of the model for this context, created if needed
+     */
+    private ContextModel findOrCreate(Context c) {
+        ContextModel model = statementsPerContext.get(c);
+        if (model == null) {
+            model = new ContextModel(initialNextLocal);
+            statementsPerContext.put(c, model);
+        }
+        return model;
+    }
+
     @Override
     public IR makeIR(Context context, SSAOptions options) {
 //        System.out.println("Invoking " + getClass().getSimpleName() + ".makeIR (ctx=" + context + ")");
 //        IR ir = this.cache.getIR(this, context);
 //        if (ir == null) {
-        Triple<List<SSAInstruction>, Map<ConstantValue, Integer>, Integer> triple = statementsPerContext.getOrDefault(context, new ImmutableTriple<>(new ArrayList<>(), new HashMap<>(), initialNextLocal));
-        List<SSAInstruction> statements = triple.getLeft();
-        SSAInstruction[] instructions = new SSAInstruction[statements.size()];
-        statements.toArray(instructions);
+        ContextModel model = statementsPerContext.get(context);
+        // the statements did not change since the IR was last built
+        if (model != null && model.ir != null && model.irVersion == model.version && model.irOptions == options)
+            return model.ir;
+        SSAInstruction[] instructions = model == null ? NO_STATEMENTS : model.toArray();
         Map<Integer, ConstantValue> constants = null;
-        Map<ConstantValue, Integer> constant2ValueNumber = triple.getMiddle();
-        if (!constant2ValueNumber.isEmpty()) {
-            constants = HashMapFactory.make(constant2ValueNumber.size());
-            for (Map.Entry<ConstantValue, Integer> entry : constant2ValueNumber.entrySet()) {
-                constants.put(entry.getValue(), entry.getKey());
+        if (model != null && model.nConstants > 0) {
+            constants = HashMapFactory.make(model.nConstants);
+            for (int i = 0; i < model.nConstants; i++) {
+                constants.put(model.constantValueNumbers[i], new ConstantValue(model.constants[i]));
             }
         }
         InducedCFG cfg = makeControlFlowGraph(instructions);/*this.getDeclaringClass()
@@ -115,6 +135,11 @@ public class MethodModel extends SyntheticMethod {
                 .makeInducedCFG(instructions, this, context);*/
         IR ir = new SyntheticIR(this, context, cfg, instructions, options, constants);
 //        }
+        if (model != null) {
+            model.ir = ir;
+            model.irVersion = model.version;
+            model.irOptions = options;
+        }
 
         return ir;
     }
@@ -130,13 +155,9 @@ public class MethodModel extends SyntheticMethod {
      * @return
      */
     public SSAReturnInstruction addReturn(Context c, int resultVar, boolean isPrimitive) {
-        Triple<List<SSAInstruction>, Map<ConstantValue, Integer>, Integer> triple = statementsPerContext.getOrDefault(c, new ImmutableTriple<>(new ArrayList<>(), new HashMap<>(), initialNextLocal));
-        List<SSAInstruction> statements = triple.getLeft();
-        SSAReturnInstruction s = this.instructionFactory.ReturnInstruction(statements.size(), resultVar, isPrimitive);
-        statements.add(s);
-
-        // update the inner cache
-        statementsPerContext.put(c, new ImmutableTriple<>(statements, triple.getMiddle(), triple.getRight()));
+        ContextModel model = findOrCreate(c);
+        SSAReturnInstruction s = this.instructionFactory.ReturnInstruction(model.size, resultVar, isPrimitive);
+        model.add(s);
         return s;
     }
 
@@ -159,17 +180,12 @@ public class MethodModel extends SyntheticMethod {
         if (target == null || invocationCode == null) {
             throw new IllegalArgumentException("target and/or invocationCode is/are null");
         }
-        Triple<List<SSAInstruction>, Map<ConstantValue, Integer>, Integer> triple = statementsPerContext.getOrDefault(c, new ImmutableTriple<>(new ArrayList<>(), new HashMap<>(), initialNextLocal));
-        List<SSAInstruction> statements = triple.getLeft();
-        int nextLocal = triple.getRight();
-        CallSiteReference newSite = CallSiteReference.make(statements.size(), target, invocationCode);
+        ContextModel model = findOrCreate(c);
+        CallSiteReference newSite = CallSiteReference.make(model.size, target, invocationCode);
         SSAAbstractInvokeInstruction s = (newSite.getDeclaredTarget().getReturnType().equals(TypeReference.Void)) ?
-                this.instructionFactory.InvokeInstruction(statements.size(), params, nextLocal++, newSite, null) :
-                this.instructionFactory.InvokeInstruction(statements.size(), nextLocal++, params, nextLocal++, newSite, null);
-        statements.add(s);
-
-        // update the inner cache
-        statementsPerContext.put(c, new ImmutableTriple<>(statements, triple.getMiddle(), nextLocal));
+                this.instructionFactory.InvokeInstruction(model.size, params, model.nextLocal++, newSite, null) :
+                this.instructionFactory.InvokeInstruction(model.size, model.nextLocal++, params, model.nextLocal++, newSite, null);
+        model.add(s);
         return s;
     }
 
@@ -222,23 +238,20 @@ public class MethodModel extends SyntheticMethod {
             throw new IllegalArgumentException("typeRef is null");
         }
 
-        Triple<List<SSAInstruction>, Map<ConstantValue, Integer>, Integer> triple = statementsPerContext.getOrDefault(ctx, new ImmutableTriple<>(new ArrayList<>(), new HashMap<>(), initialNextLocal));
-        List<SSAInstruction> statements = triple.getLeft();
-        Integer nextLocal = triple.getRight();
-
-        int instance = nextLocal++;
+        ContextModel model = findOrCreate(ctx);
+        int instance = model.nextLocal++;
         SSANewInstruction result = null;
 
         if (typeRef.isReferenceType()) {
-            NewSiteReference ref = NewSiteReference.make(statements.size(), typeRef);
+            NewSiteReference ref = NewSiteReference.make(model.size, typeRef);
             if (typeRef.isArrayType()) {
                 int[] sizes = new int[ArrayClass.getArrayTypeDimensionality(typeRef)];
                 Arrays.fill(sizes, getValueNumberForIntConstant(ctx, 1));
-                result = instructionFactory.NewInstruction(statements.size(), instance, ref, sizes);
+                result = instructionFactory.NewInstruction(model.size, instance, ref, sizes);
             } else {
-                result = instructionFactory.NewInstruction(statements.size(), instance, ref);
+                result = instructionFactory.NewInstruction(model.size, instance, ref);
             }
-            statements.add(result);
+            model.add(result);
 
             IClass klass = cha.lookupClass(typeRef);
             if (klass == null) {
@@ -251,30 +264,29 @@ public class MethodModel extends SyntheticMethod {
                 TypeReference e = klass.getReference().getArrayElementType();
                 while (e != null && !e.isPrimitiveType()) {
                     // allocate an instance for the array contents
-                    NewSiteReference n = NewSiteReference.make(statements.size(), e);
-                    int alloc = nextLocal++;
+                    NewSiteReference n = NewSiteReference.make(model.size, e);
+                    int alloc = model.nextLocal++;
                     SSANewInstruction ni = null;
                     if (e.isArrayType()) {
                         int[] sizes = new int[((ArrayClass) cha.lookupClass(typeRef)).getDimensionality()];
                         Arrays.fill(sizes, getValueNumberForIntConstant(ctx, 1));
-                        ni = instructionFactory.NewInstruction(statements.size(), alloc, n, sizes);
+                        ni = instructionFactory.NewInstruction(model.size, alloc, n, sizes);
                     } else {
-                        ni = instructionFactory.NewInstruction(statements.size(), alloc, n);
+                        ni = instructionFactory.NewInstruction(model.size, alloc, n);
                     }
-                    statements.add(ni);
+                    model.add(ni);
 
                     // emit an astore
+                    int zero = getValueNumberForIntConstant(ctx, 0);
                     SSAArrayStoreInstruction store =
                             instructionFactory.ArrayStoreInstruction(
-                                    statements.size(), arrayRef, getValueNumberForIntConstant(ctx, 0), alloc, e);
-                    statements.add(store);
+                                    model.size, arrayRef, zero, alloc, e);
+                    model.add(store);
 
                     e = e.isArrayType() ? e.getArrayElementType() : null;
                     arrayRef = alloc;
                 }
             }
-            // update the inner cache
-            statementsPerContext.put(ctx, new ImmutableTriple<>(statements, triple.getMiddle(), nextLocal));
 
             if (invokeCtor) {
 //                // find the closest default constructor
@@ -309,25 +321,18 @@ public class MethodModel extends SyntheticMethod {
     }
 
     public int getValueNumberForIntConstant(Context c, int constant) {
-        Triple<List<SSAInstruction>, Map<ConstantValue, Integer>, Integer> triple = statementsPerContext.getOrDefault(c, new ImmutableTriple<>(new ArrayList<>(), new HashMap<>(), initialNextLocal));
-        Map<ConstantValue, Integer> constant2ValueNumber = triple.getMiddle();
-        int nextLocal = triple.getRight();
-        ConstantValue v = new ConstantValue(constant);
-        Integer result = constant2ValueNumber.get(v);
-        if (result == null) {
-            result = nextLocal++;
-            constant2ValueNumber.put(v, result);
+        ContextModel model = findOrCreate(c);
+        for (int i = 0; i < model.nConstants; i++) {
+            if (model.constants[i] == constant) return model.constantValueNumbers[i];
         }
-
-        // update the inner cache
-        statementsPerContext.put(c, new ImmutableTriple<>(triple.getLeft(), constant2ValueNumber, nextLocal));
-
+        int result = model.nextLocal++;
+        model.addConstant(constant, result);
         return result;
     }
 
     public int getNumberOfStatements(Context context) {
-        Triple<List<SSAInstruction>, Map<ConstantValue, Integer>, Integer> triple = this.statementsPerContext.get(context);
-        return triple == null ? 0 : triple.getLeft().size();
+        ContextModel model = this.statementsPerContext.get(context);
+        return model == null ? 0 : model.size;
     }
 
 //
@@ -354,55 +359,187 @@ public class MethodModel extends SyntheticMethod {
 //    }
 
     public SSAPhiInstruction addPhi(Context c, List<Integer> values) {
-        Triple<List<SSAInstruction>, Map<ConstantValue, Integer>, Integer> triple = statementsPerContext.getOrDefault(c, new ImmutableTriple<>(new ArrayList<>(), new HashMap<>(), initialNextLocal));
-        List<SSAInstruction> statements = triple.getLeft();
-        Integer nextLocal = triple.getRight();
-
-        int result = nextLocal++;
+        ContextModel model = findOrCreate(c);
+        int result = model.nextLocal++;
         int valArray[] = new int[values.size()];
         for (int i = 0; i < values.size(); i++) {
             valArray[i] = values.get(i);
         }
-        SSAPhiInstruction phi = instructionFactory.PhiInstruction(statements.size(), result, valArray);
-        statements.add(phi);
-
-        // update the inner cache
-        statementsPerContext.put(c, new ImmutableTriple<>(statements, triple.getMiddle(), nextLocal));
+        SSAPhiInstruction phi = instructionFactory.PhiInstruction(model.size, result, valArray);
+        model.add(phi);
         return phi;
     }
 
     public int addGetInstance(Context c, FieldReference ref, int object) {
-        Triple<List<SSAInstruction>, Map<ConstantValue, Integer>, Integer> triple = statementsPerContext.getOrDefault(c, new ImmutableTriple<>(new ArrayList<>(), new HashMap<>(), initialNextLocal));
-        List<SSAInstruction> statements = triple.getLeft();
-        Integer nextLocal = triple.getRight();
-
+        ContextModel model = findOrCreate(c);
         // add the instruction
-        int result = nextLocal++;
-        statements.add(instructionFactory.GetInstruction(statements.size(), result, object, ref));
-
-        // update the inner cache
-        statementsPerContext.put(c, new ImmutableTriple<>(statements, triple.getMiddle(), nextLocal));
-
+        int result = model.nextLocal++;
+        model.add(instructionFactory.GetInstruction(model.size, result, object, ref));
         return result;
     }
 
     public int addCheckcast(Context c, TypeReference[] types, int rv, boolean isPEI) {
-        Triple<List<SSAInstruction>, Map<ConstantValue, Integer>, Integer> triple = statementsPerContext.getOrDefault(c, new ImmutableTriple<>(new ArrayList<>(), new HashMap<>(), initialNextLocal));
-        List<SSAInstruction> statements = triple.getLeft();
-        int nextLocal = triple.getRight();
-        int lv = nextLocal++;
-        statements.add(instructionFactory.CheckCastInstruction(statements.size(), lv, rv, types, isPEI));
-        // update the inner cache
-        statementsPerContext.put(c, new ImmutableTriple<>(statements, triple.getMiddle(), nextLocal));
+        ContextModel model = findOrCreate(c);
+        int lv = model.nextLocal++;
+        model.add(instructionFactory.CheckCastInstruction(model.size, lv, rv, types, isPEI));
         return lv;
     }
 
+//<editor-fold desc="Idempotent variants (at most one instruction per key and context)">
+
+    /**
+     * Same as {@link #addAllocation(Context, TypeReference)}, except that a type is allocated at most once per context.
+     *
+     * @return the (new or previously added) instruction, or null
+     */
+    public SSANewInstruction ensureAllocation(Context c, TypeReference T) {
+        InstructionKey key = new InstructionKey(T, null);
+        ContextModel model = findOrCreate(c);
+        SSAInstruction existing = model.find(key);
+        if (existing != null) return (SSANewInstruction) existing;
+        SSANewInstruction result = addAllocation(c, T);
+        if (result != null) model.remember(key, result);
+        return result;
+    }
+
+    /**
+     * Same as {@link #addInvocation(Context, int[], MethodReference, IInvokeInstruction.IDispatch)}, except that a target is
+     * invoked at most once per context with the same arguments.
+     *
+     * @return the (new or previously added) invoke instruction
+     */
+    public SSAAbstractInvokeInstruction ensureInvocation(Context c, int[] params, MethodReference target, IInvokeInstruction.IDispatch invocationCode) {
+        InstructionKey key = new InstructionKey(Pair.make(target, invocationCode), params);
+        ContextModel model = findOrCreate(c);
+        SSAInstruction existing = model.find(key);
+        if (existing != null) return (SSAAbstractInvokeInstruction) existing;
+        SSAAbstractInvokeInstruction result = addInvocation(c, params, target, invocationCode);
+        model.remember(key, result);
+        return result;
+    }
+
+    /**
+     * Same as {@link #addGetInstance(Context, FieldReference, int)}, except that a field of an object is read at most once per context.
+     *
+     * @return the value number holding the field's value
+     */
+    public int ensureGetInstance(Context c, FieldReference ref, int object) {
+        InstructionKey key = new InstructionKey(ref, new int[]{object});
+        ContextModel model = findOrCreate(c);
+        SSAInstruction existing = model.find(key);
+        if (existing != null) return existing.getDef();
+        int result = addGetInstance(c, ref, object);
+        model.remember(key, model.statements[model.size - 1]);
+        return result;
+    }
+
+    /**
+     * Same as {@link #addCheckcast(Context, TypeReference[], int, boolean)}, except that a value is cast to the same types at most once per context.
+     *
+     * @return the value number holding the cast value
+     */
+    public int ensureCheckcast(Context c, TypeReference[] types, int rv, boolean isPEI) {
+        InstructionKey key = new InstructionKey(Arrays.asList(types), new int[]{rv});
+        ContextModel model = findOrCreate(c);
+        SSAInstruction existing = model.find(key);
+        if (existing != null) return existing.getDef();
+        int result = addCheckcast(c, types, rv, isPEI);
+        model.remember(key, model.statements[model.size - 1]);
+        return result;
+    }
+
+    /**
+     * Identifies an instruction by what it refers to (type, method, or field) and the value numbers it uses.
+     */
+    private static final class InstructionKey {
+        private final Object reference;
+        private final int[] uses;
+
+        private InstructionKey(Object reference, int[] uses) {
+            this.reference = reference;
+            this.uses = uses;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            InstructionKey that = (InstructionKey) o;
+            return reference.equals(that.reference) && Arrays.equals(uses, that.uses);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * reference.hashCode() + Arrays.hashCode(uses);
+        }
+    }
+//</editor-fold>
+
 //    public int addGetStatic(FieldReference ref) {
 //        int result = nextLocal++;
 //        statements.add(instructionFactory.GetInstruction(statements.size(), result, ref));
 //        return result;
 //    }
 
+    /**
+     * Mutable state of the model for a given context.
+     * Instructions are kept in a growable array and the materialized {@link SSAInstruction}[] is cached until the next change.
+     */
+    private static final class ContextModel {
+        private SSAInstruction[] statements = new SSAInstruction[8];
+        private int size = 0;
+        private int nextLocal;
+        // int constant -> value number (models only need a handful of them, so a linear scan is enough)
+        private int[] constants = new int[2];
+        private int[] constantValueNumbers = new int[2];
+        private int nConstants = 0;
+        // statements[0..size) as of the last call to toArray()
+        private SSAInstruction[] materialized;
+        // incremented on every change
+        private int version = 0;
+        // IR built for the statements at irVersion
+        private IR ir;
+        private int irVersion;
+        private SSAOptions irOptions;
+        // instructions added through the ensure* methods (created on demand)
+        private Map<InstructionKey, SSAInstruction> uniqueInstructions;
+
+        private ContextModel(int nextLocal) {
+            this.nextLocal = nextLocal;
+        }
+
+        private void add(SSAInstruction s) {
+            if (size == statements.length) statements = Arrays.copyOf(statements, size * 2);
+            statements[size++] = s;
+            materialized = null;
+            version++;
+        }
+
+        private void addConstant(int constant, int valueNumber) {
+            if (nConstants == constants.length) {
+                constants = Arrays.copyOf(constants, nConstants * 2);
+                constantValueNumbers = Arrays.copyOf(constantValueNumbers, nConstants * 2);
+            }
+            constants[nConstants] = constant;
+            constantValueNumbers[nConstants++] = valueNumber;
+            version++;
+        }
+
+        private SSAInstruction find(InstructionKey key) {
+            return uniqueInstructions == null ? null : uniqueInstructions.get(key);
+        }
+
+        private void remember(InstructionKey key, SSAInstruction instruction) {
+            if (uniqueInstructions == null) uniqueInstructions = new HashMap<>();
+            uniqueInstructions.put(key, instruction);
+        }
+
+        private SSAInstruction[] toArray() {
+            if (materialized == null) materialized = Arrays.copyOf(statements, size);
+            return materialized;
+        }
+    }
+
     /**
      * A warning for when we fail to allocate a type in the fake root method
      */
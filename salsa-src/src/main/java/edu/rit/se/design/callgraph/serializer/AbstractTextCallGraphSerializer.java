@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.serializer;
+
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Base class for serializers that write one line per call graph edge.
+ * Lines are streamed to a buffered writer (optionally gzip-compressed), and the string of each node is computed only once.
+ * With more than one output thread, nodes are rendered in parallel by a {@link PartitionedWriter} (the output is the same).
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public abstract class AbstractTextCallGraphSerializer implements ICallGraphSerializer {
+
+    public static final String GZIP_EXTENSION = ".gz";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * whether the output is gzip-compressed
+     */
+    private final boolean compressed;
+    /**
+     * number of threads used for rendering the lines (1 = sequential)
+     */
+    private int outputThreads = 1;
+
+    protected AbstractTextCallGraphSerializer(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public int getOutputThreads() {
+        return outputThreads;
+    }
+
+    public void setOutputThreads(int outputThreads) {
+        if (outputThreads < 1) throw new IllegalArgumentException("outputThreads must be at least 1");
+        this.outputThreads = outputThreads;
+    }
+
+    /**
+     * Saves a file in a given format (it is gzip-compressed if this serializer was set to compress or if the file name ends with .gz).
+     *
+     * @param cg         call graph
+     * @param outputFile where to save the file
+     */
+    @Override
+    public void save(CallGraph cg, File outputFile) {
+        NodeStrings strings = new NodeStrings(cg);
+        try (OutputStream stream = openStream(outputFile)) {
+            if (outputThreads > 1) {
+                List<CGNode> nodes = new ArrayList<>(cg.getNumberOfNodes());
+                cg.forEach(nodes::add);
+                new PartitionedWriter(outputThreads).write(nodes, (chunk, chunkIndex, out) -> {
+                    for (CGNode node : chunk)
+                        writeNode(cg, node, strings, out);
+                }, stream);
+            } else {
+                Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+                for (CGNode node : cg)
+                    writeNode(cg, node, strings, out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    protected OutputStream openStream(File outputFile) throws IOException {
+        OutputStream stream = new BufferedOutputStream(new FileOutputStream(outputFile), BUFFER_SIZE);
+        if (compressed || outputFile.getName().endsWith(GZIP_EXTENSION))
+            stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+        return stream;
+    }
+
+    /**
+     * Writes the lines for the outgoing edges of a node.
+     *
+     * @param cg      call graph
+     * @param node    the source node
+     * @param strings cached strings of the call graph nodes
+     * @param out     where the lines are written
+     */
+    protected abstract void writeNode(CallGraph cg, CGNode node, NodeStrings strings, Writer out) throws IOException;
+
+    /**
+     * Converts a node to a string (it is called at most once per node).
+     *
+     * @param node a call graph node
+     * @return its string representation
+     */
+    protected abstract String toString(CGNode node);
+
+    /**
+     * Node strings, indexed by the node's graph number.
+     * Concurrent lookups are safe: at worst, a string is computed more than once.
+     */
+    protected class NodeStrings {
+        private final String[] strings;
+
+        protected NodeStrings(CallGraph cg) {
+            this.strings = new String[cg.getMaxNumber() + 1];
+        }
+
+        public String get(CGNode node) {
+            int id = node.getGraphNodeId();
+            String s = strings[id];
+            if (s == null) {
+                s = AbstractTextCallGraphSerializer.this.toString(node);
+                strings[id] = s;
+            }
+            return s;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.serializer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static edu.rit.se.design.callgraph.serializer.BinaryCallGraphSerializer.*;
+
+/**
+ * Reads call graphs saved by {@link BinaryCallGraphSerializer}.
+ * The file is memory-mapped and queries read it directly, so opening a call graph costs the same regardless of its size.
+ * Instances are immutable and can be shared across threads.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class BinaryCallGraphReader implements Closeable {
+
+    private static final int HEADER_SIZE = 6 * Integer.BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int nNodes;
+    private final int nEdges;
+    private final int nStrings;
+    // section positions (in bytes)
+    private final int stringOffsetsPos;
+    private final int stringDataPos;
+    private final int methodsPos;
+    private final int flagsPos;
+    private final int succOffsetsPos;
+    private final int succTargetsPos;
+    private final int succPcsPos;
+    private final int predOffsetsPos;
+    private final int predSourcesPos;
+    private final int predPcsPos;
+
+    public BinaryCallGraphReader(File file) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        if (channel.size() > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Call graph files larger than 2GB are not supported: " + file);
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException("Not a binary call graph file: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Unsupported binary call graph version " + buffer.getInt(4) + " in " + file);
+        }
+        this.nNodes = buffer.getInt(8);
+        this.nEdges = buffer.getInt(12);
+        this.nStrings = buffer.getInt(16);
+        int dataLength = buffer.getInt(20);
+
+        this.stringOffsetsPos = HEADER_SIZE;
+        this.stringDataPos = stringOffsetsPos + (nStrings + 1) * Integer.BYTES;
+        this.methodsPos = stringDataPos + dataLength + padding(dataLength);
+        this.flagsPos = methodsPos + nNodes * Integer.BYTES;
+        this.succOffsetsPos = flagsPos + nNodes * Integer.BYTES;
+        this.succTargetsPos = succOffsetsPos + (nNodes + 1) * Integer.BYTES;
+        this.succPcsPos = succTargetsPos + nEdges * Integer.BYTES;
+        this.predOffsetsPos = succPcsPos + nEdges * Integer.BYTES;
+        this.predSourcesPos = predOffsetsPos + (nNodes + 1) * Integer.BYTES;
+        this.predPcsPos = predSourcesPos + nEdges * Integer.BYTES;
+        if (predPcsPos + (long) nEdges * Integer.BYTES != buffer.capacity()) {
+            channel.close();
+            throw new IOException("Truncated or corrupted binary call graph file: " + file);
+        }
+    }
+
+    public int getNumberOfNodes() {
+        return nNodes;
+    }
+
+    public int getNumberOfEdges() {
+        return nEdges;
+    }
+
+    /**
+     * @param node node number (from 0 to {@link #getNumberOfNodes()} - 1)
+     * @return the signature of the node's method
+     */
+    public String getMethod(int node) {
+        return getString(intAt(methodsPos, checkNode(node)));
+    }
+
+    public boolean isModel(int node) {
+        return (intAt(flagsPos, checkNode(node)) & FLAG_MODEL) != 0;
+    }
+
+    public boolean isEntrypoint(int node) {
+        return (intAt(flagsPos, checkNode(node)) & FLAG_ENTRYPOINT) != 0;
+    }
+
+    public boolean isFakeRoot(int node) {
+        return (intAt(flagsPos, checkNode(node)) & FLAG_FAKE_ROOT) != 0;
+    }
+
+    /**
+     * @param methodSignature a method signature (as in {@link com.ibm.wala.classLoader.IMethod#getSignature()})
+     * @return the nodes of this method (one per context); it scans all nodes
+     */
+    public int[] findNodes(String methodSignature) {
+        int stringId = -1;
+        for (int s = 0; s < nStrings && stringId == -1; s++)
+            if (getString(s).equals(methodSignature)) stringId = s;
+        if (stringId == -1) return new int[0];
+
+        int[] result = new int[4];
+        int size = 0;
+        for (int n = 0; n < nNodes; n++) {
+            if (intAt(methodsPos, n) != stringId) continue;
+            if (size == result.length) result = Arrays.copyOf(result, size * 2);
+            result[size++] = n;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    //<editor-fold desc="Successors">
+    public int getNumberOfSuccessors(int node) {
+        return intAt(succOffsetsPos, checkNode(node) + 1) - intAt(succOffsetsPos, node);
+    }
+
+    /**
+     * @return the targets of all call sites of a node (a target appears once per call site that reaches it)
+     */
+    public int[] getSuccessors(int node) {
+        return slice(succOffsetsPos, succTargetsPos, checkNode(node));
+    }
+
+    /**
+     * @return the call site program counters, aligned with {@link #getSuccessors(int)}
+     */
+    public int[] getSuccessorPcs(int node) {
+        return slice(succOffsetsPos, succPcsPos, checkNode(node));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Predecessors">
+    public int getNumberOfPredecessors(int node) {
+        return intAt(predOffsetsPos, checkNode(node) + 1) - intAt(predOffsetsPos, node);
+    }
+
+    /**
+     * @return the callers of a node (a caller appears once per call site that reaches the node)
+     */
+    public int[] getPredecessors(int node) {
+        return slice(predOffsetsPos, predSourcesPos, checkNode(node));
+    }
+
+    /**
+     * @return the program counters of the callers' call sites, aligned with {@link #getPredecessors(int)}
+     */
+    public int[] getPredecessorPcs(int node) {
+        return slice(predOffsetsPos, predPcsPos, checkNode(node));
+    }
+    //</editor-fold>
+
+    private String getString(int id) {
+        int begin = intAt(stringOffsetsPos, id);
+        int end = intAt(stringOffsetsPos, id + 1);
+        byte[] bytes = new byte[end - begin];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = buffer.get(stringDataPos + begin + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int[] slice(int offsetsPos, int valuesPos, int node) {
+        int begin = intAt(offsetsPos, node);
+        int end = intAt(offsetsPos, node + 1);
+        int[] values = new int[end - begin];
+        for (int i = 0; i < values.length; i++) values[i] = intAt(valuesPos, begin + i);
+        return values;
+    }
+
+    private int intAt(int sectionPos, int i) {
+        return buffer.getInt(sectionPos + i * Integer.BYTES);
+    }
+
+    private int checkNode(int node) {
+        if (node < 0 || node >= nNodes) throw new IllegalArgumentException("Invalid node " + node + " (there are " + nNodes + " nodes)");
+        return node;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
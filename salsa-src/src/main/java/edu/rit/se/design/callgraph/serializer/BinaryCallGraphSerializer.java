@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.serializer;
+
+import com.ibm.wala.classLoader.CallSiteReference;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import edu.rit.se.design.callgraph.model.MethodModel;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Saves a call graph in a compact binary format that can be queried without being parsed (see {@link BinaryCallGraphReader}).
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * header:       magic (int), version (int), #nodes (int), #edges (int), #strings (int), string data length (int)
+ * strings:      offsets (int[#strings + 1]), UTF-8 data (byte[string data length]), padded to 4 bytes
+ * nodes:        method signature string index (int[#nodes]), flags (int[#nodes])
+ * successors:   offsets (int[#nodes + 1]), targets (int[#edges]), call site pcs (int[#edges])
+ * predecessors: offsets (int[#nodes + 1]), sources (int[#edges]), call site pcs (int[#edges])
+ * </pre>
+ * Nodes are numbered from 0 in the call graph's iteration order. An edge is a (caller, call site, target) triple,
+ * so the same pair of nodes may be linked by more than one edge (one per call site).
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class BinaryCallGraphSerializer implements ICallGraphSerializer {
+
+    public static final int MAGIC = 0x53434742; // "SCGB"
+    public static final int VERSION = 1;
+
+    // node flags
+    public static final int FLAG_MODEL = 1;
+    public static final int FLAG_ENTRYPOINT = 1 << 1;
+    public static final int FLAG_FAKE_ROOT = 1 << 2;
+
+    /**
+     * Saves a file in the binary format.
+     *
+     * @param cg         call graph
+     * @param outputFile where to save the file
+     */
+    @Override
+    public void save(CallGraph cg, File outputFile) {
+        // node numbering and string table
+        int[] index = new int[cg.getMaxNumber() + 1];
+        Arrays.fill(index, -1);
+        List<CGNode> nodes = new ArrayList<>(cg.getNumberOfNodes());
+        for (CGNode node : cg) {
+            index[node.getGraphNodeId()] = nodes.size();
+            nodes.add(node);
+        }
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] methods = new int[nodes.size()];
+        int[] flags = new int[nodes.size()];
+        Set<CGNode> entrypoints = new HashSet<>(cg.getEntrypointNodes());
+        for (int i = 0; i < nodes.size(); i++) {
+            CGNode node = nodes.get(i);
+            String signature = node.getMethod().getSignature();
+            Integer id = stringIds.get(signature);
+            if (id == null) {
+                id = strings.size();
+                stringIds.put(signature, id);
+                strings.add(signature.getBytes(StandardCharsets.UTF_8));
+            }
+            methods[i] = id;
+            if (node.getMethod() instanceof MethodModel) flags[i] |= FLAG_MODEL;
+            if (entrypoints.contains(node)) flags[i] |= FLAG_ENTRYPOINT;
+            if (node.equals(cg.getFakeRootNode())) flags[i] |= FLAG_FAKE_ROOT;
+        }
+
+        // successors (CSR)
+        int[] succOffsets = new int[nodes.size() + 1];
+        IntList succTargets = new IntList();
+        IntList succPcs = new IntList();
+        for (int i = 0; i < nodes.size(); i++) {
+            CGNode node = nodes.get(i);
+            for (Iterator<CallSiteReference> it = node.iterateCallSites(); it.hasNext(); ) {
+                CallSiteReference cs = it.next();
+                for (CGNode target : cg.getPossibleTargets(node, cs)) {
+                    succTargets.add(index[target.getGraphNodeId()]);
+                    succPcs.add(cs.getProgramCounter());
+                }
+            }
+            succOffsets[i + 1] = succTargets.size();
+        }
+        int nEdges = succTargets.size();
+
+        // predecessors (CSR), derived from the successors with a counting sort
+        int[] predOffsets = new int[nodes.size() + 1];
+        for (int e = 0; e < nEdges; e++) predOffsets[succTargets.get(e) + 1]++;
+        for (int i = 0; i < nodes.size(); i++) predOffsets[i + 1] += predOffsets[i];
+        int[] predSources = new int[nEdges];
+        int[] predPcs = new int[nEdges];
+        int[] next = Arrays.copyOf(predOffsets, nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int e = succOffsets[i]; e < succOffsets[i + 1]; e++) {
+                int slot = next[succTargets.get(e)]++;
+                predSources[slot] = i;
+                predPcs[slot] = succPcs.get(e);
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputFile), 1 << 16))) {
+            int dataLength = 0;
+            for (byte[] s : strings) dataLength += s.length;
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(nodes.size());
+            out.writeInt(nEdges);
+            out.writeInt(strings.size());
+            out.writeInt(dataLength);
+
+            int offset = 0;
+            out.writeInt(offset);
+            for (byte[] s : strings) {
+                offset += s.length;
+                out.writeInt(offset);
+            }
+            for (byte[] s : strings) out.write(s);
+            for (int i = 0; i < padding(dataLength); i++) out.writeByte(0);
+
+            writeInts(out, methods, methods.length);
+            writeInts(out, flags, flags.length);
+            writeInts(out, succOffsets, succOffsets.length);
+            writeInts(out, succTargets.elements, nEdges);
+            writeInts(out, succPcs.elements, nEdges);
+            writeInts(out, predOffsets, predOffsets.length);
+            writeInts(out, predSources, nEdges);
+            writeInts(out, predPcs, nEdges);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return number of bytes needed after the string data so that the next section is aligned to 4 bytes
+     */
+    static int padding(int dataLength) {
+        return (4 - dataLength % 4) % 4;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values, int length) throws IOException {
+        for (int i = 0; i < length; i++) out.writeInt(values[i]);
+    }
+
+    /**
+     * Growable array of primitive ints.
+     */
+    private static class IntList {
+        private int[] elements = new int[1024];
+        private int size = 0;
+
+        private void add(int value) {
+            if (size == elements.length) elements = Arrays.copyOf(elements, size * 2);
+            elements[size++] = value;
+        }
+
+        private int get(int i) {
+            return elements[i];
+        }
+
+        private int size() {
+            return size;
+        }
+    }
+}
@@ -15,48 +15,56 @@
 
 package edu.rit.se.design.callgraph.serializer;
 
-import com.ibm.wala.classLoader.IMethod;
 import com.ibm.wala.ipa.callgraph.CGNode;
 import com.ibm.wala.ipa.callgraph.CallGraph;
-import org.apache.commons.io.FileUtils;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
 
 import static edu.rit.se.design.callgraph.serializer.JavaCallGraphSerializer.method2String;
-import static java.lang.String.format;
 
 /**
+ * Saves a call graph with one edge per line: source and target methods followed by their class loaders.
+ *
  * @author Joanna C. S. Santos (jds5109@rit.edu)
  */
-public class JDynCallGraphSerializer implements ICallGraphSerializer {
+public class JDynCallGraphSerializer extends AbstractTextCallGraphSerializer {
+
+    public JDynCallGraphSerializer() {
+        this(false);
+    }
+
+    public JDynCallGraphSerializer(boolean compressed) {
+        super(compressed);
+    }
+
     /**
-     * Saves a file in a given format.
-     *
-     * @param cg         call graph
-     * @param outputFile where to save the file
+     * @return the method string and the class loader name, separated by a tab (the separator cannot appear in either)
      */
     @Override
-    public void save(CallGraph cg, File outputFile) {
-        try {
-            StringBuilder stringBuilder = new StringBuilder();
-            for (CGNode cgNode : cg) {
-                IMethod method = cgNode.getMethod();
-                cg.getSuccNodes(cgNode).forEachRemaining(target -> {
-                    stringBuilder.append(
-                            format("%s %s %s %s\n",
-                                    method2String(method),
-                                    method2String(target.getMethod()),
-                                    method.getDeclaringClass().getClassLoader().getReference().getName().toString(),
-                                    target.getMethod().getDeclaringClass().getClassLoader().getReference().getName().toString()
-                            )
-                    );
-                });
-            }
-
-            FileUtils.write(outputFile, stringBuilder.toString(), "UTF-8");
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    protected String toString(CGNode node) {
+        return method2String(node.getMethod()) + '\t' + node.getMethod().getDeclaringClass().getClassLoader().getReference().getName().toString();
+    }
+
+    @Override
+    protected void writeNode(CallGraph cg, CGNode node, NodeStrings strings, Writer out) throws IOException {
+        Iterator<CGNode> targets = cg.getSuccNodes(node);
+        if (!targets.hasNext()) return;
+        String source = strings.get(node);
+        int sourceSeparator = source.indexOf('\t');
+        while (targets.hasNext()) {
+            String target = strings.get(targets.next());
+            int targetSeparator = target.indexOf('\t');
+            // format: sourceMethod targetMethod sourceLoader targetLoader
+            out.write(source, 0, sourceSeparator);
+            out.write(' ');
+            out.write(target, 0, targetSeparator);
+            out.write(' ');
+            out.write(source, sourceSeparator + 1, source.length() - sourceSeparator - 1);
+            out.write(' ');
+            out.write(target, targetSeparator + 1, target.length() - targetSeparator - 1);
+            out.write('\n');
         }
     }
 }
@@ -18,17 +18,26 @@ package edu.rit.se.design.callgraph.serializer;
 import com.ibm.wala.classLoader.IMethod;
 import com.ibm.wala.ipa.callgraph.CGNode;
 import com.ibm.wala.ipa.callgraph.CallGraph;
-import org.apache.commons.io.FileUtils;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
 
 /**
  * Saves a call graph with the same format as the Java Call Graph tool (https://github.com/gousiosg/java-callgraph).
  *
  * @author Joanna C. S. Santos
  */
-public class JavaCallGraphSerializer implements ICallGraphSerializer {
+public class JavaCallGraphSerializer extends AbstractTextCallGraphSerializer {
+
+    public JavaCallGraphSerializer() {
+        this(false);
+    }
+
+    public JavaCallGraphSerializer(boolean compressed) {
+        super(compressed);
+    }
+
     /**
      * Converts an {@link IMethod} to a string.
      *
@@ -36,32 +45,34 @@ public class JavaCallGraphSerializer implements ICallGraphSerializer {
      * @return a string like fully.qualified.class.Name:methodName
      */
     public static String method2String(IMethod method) {
-        return String.format("%s:%s",
-                method.getDeclaringClass().getName().toString().substring(1).replace("/", "."),
-                method.getName().toString());
+        String className = method.getDeclaringClass().getName().toString();
+        return new StringBuilder(className.length() + 16)
+                .append(className, 1, className.length())
+                .append(':')
+                .append(method.getName().toString())
+                .toString()
+                .replace('/', '.');
+    }
+
+    @Override
+    protected String toString(CGNode node) {
+        return method2String(node.getMethod());
     }
 
     /**
-     * Saves a file in a format that matches the Java Call Graph tool.
+     * Writes the edges of a node in a format that matches the Java Call Graph tool.
      * (https://github.com/gousiosg/java-callgraph)
-     *
-     * @param cg         call graph
-     * @param outputFile where to save the file
      */
     @Override
-    public void save(CallGraph cg, File outputFile) {
-        try {
-            StringBuilder stringBuilder = new StringBuilder();
-            for (CGNode cgNode : cg) {
-                IMethod method = cgNode.getMethod();
-                cg.getSuccNodes(cgNode).forEachRemaining(target -> {
-                    stringBuilder.append(String.format("%s %s\n", method2String(method), method2String(target.getMethod())));
-                });
-            }
-
-            FileUtils.write(outputFile, stringBuilder.toString(), "UTF-8");
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    protected void writeNode(CallGraph cg, CGNode node, NodeStrings strings, Writer out) throws IOException {
+        Iterator<CGNode> targets = cg.getSuccNodes(node);
+        if (!targets.hasNext()) return;
+        String source = strings.get(node);
+        while (targets.hasNext()) {
+            out.write(source);
+            out.write(' ');
+            out.write(strings.get(targets.next()));
+            out.write('\n');
         }
     }
 
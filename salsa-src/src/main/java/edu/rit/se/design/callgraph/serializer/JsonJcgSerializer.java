@@ -16,29 +16,60 @@
 package edu.rit.se.design.callgraph.serializer;
 
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import com.ibm.wala.classLoader.CallSiteReference;
+import com.ibm.wala.classLoader.IMethod;
 import com.ibm.wala.ipa.callgraph.CGNode;
 import com.ibm.wala.ipa.callgraph.CallGraph;
 import com.ibm.wala.types.MethodReference;
 import com.ibm.wala.types.TypeReference;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.Writer;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Serializes a class using the format described in the paper by Reif et al.
+ * <p>
+ * The output is streamed method by method, so the JSON tree is never materialized: the memory needed is proportional
+ * to the number of methods (rather than to the size of the output).
+ * Nodes of the same method (in different contexts) are merged into a single reachable method.
+ * With more than one output thread, the reachable methods are rendered in parallel by a {@link PartitionedWriter}
+ * (the output is byte-identical to the sequential one). In that case, the merged call sites of all methods are kept
+ * until they are rendered, so the memory needed is proportional to the number of call graph edges.
  *
  * @author Joanna C. S. Santos
  */
 public class JsonJcgSerializer implements ICallGraphSerializer {
 
+    private static final String INDENT = "  ";
+    /**
+     * indentation of the reachable methods when pretty printing (they are inside the "reachableMethods" array, which is inside the root object)
+     */
+    private static final String METHOD_INDENT = INDENT + INDENT;
+    private final boolean prettyPrinting;
+    /**
+     * number of threads used for rendering the reachable methods (1 = sequential)
+     */
+    private int outputThreads = 1;
+
+    public JsonJcgSerializer() {
+        this(true);
+    }
+
+    public JsonJcgSerializer(boolean prettyPrinting) {
+        this.prettyPrinting = prettyPrinting;
+    }
+
+    public int getOutputThreads() {
+        return outputThreads;
+    }
+
+    public void setOutputThreads(int outputThreads) {
+        if (outputThreads < 1) throw new IllegalArgumentException("outputThreads must be at least 1");
+        this.outputThreads = outputThreads;
+    }
 
     private static String toJVMString(TypeReference typeReference) {
         if (typeReference.isClassType() || isArrayOfClassType(typeReference)) {
@@ -61,100 +92,228 @@ public class JsonJcgSerializer implements ICallGraphSerializer {
         }
     }
 
+    /**
+     * Saves a file in a given format.
+     *
+     * @param cg         call graph
+     * @param outputFile where to save the file
+     */
+    @Override
+    public void save(CallGraph cg, File outputFile) {
+        if (outputThreads > 1) {
+            saveInParallel(cg, outputFile);
+            return;
+        }
+        try (JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8)))) {
+            writer.setHtmlSafe(false);
+            if (prettyPrinting) writer.setIndent(INDENT);
+            write(cg, writer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-    // Method(name: String, declaringClass: String, returnType: String, parameterTypes: List[String])
-    private static JsonObject methodToJson(MethodReference method) {
-        JsonObject jsonObject = new JsonObject();
+    /**
+     * Writes the reachable methods (in breadth-first order from the entrypoints).
+     * <p>
+     * FORMAT:
+     * <pre>
+     *    ReachableMethod(method: Method, callSites: Set[CallSite])
+     *    CallSite(declaredTarget: Method, line: Int, pc: Option[Int], targets: Set[Method])
+     *    Method(name: String, declaringClass: String, returnType: String, parameterTypes: List[String])
+     * </pre>
+     */
+    private void write(CallGraph cg, JsonWriter writer) throws IOException {
+        MethodDescriptors descriptors = new MethodDescriptors();
+        Queue<MethodReference> worklist = new ArrayDeque<>();
+        Set<MethodReference> visited = new HashSet<>();
+        for (CGNode entrypoint : cg.getEntrypointNodes()) {
+            MethodReference m = entrypoint.getMethod().getReference();
+            if (visited.add(m)) worklist.add(m);
+        }
 
+        writer.beginObject();
+        writer.name("reachableMethods");
+        writer.beginArray();
+        while (!worklist.isEmpty()) {
+            MethodReference method = worklist.poll();
+            Set<CGNode> nodes = cg.getNodes(method);
+            if (nodes.isEmpty()) continue;
 
-        String name = method.getName().toString();
-        String declaringClass = toJVMString(method.getDeclaringClass());
-        String returnType = toJVMString(method.getReturnType());
-        JsonArray parameterTypes = new JsonArray();
-        for (int i = 0; i < method.getNumberOfParameters(); i++) {
-            parameterTypes.add(toJVMString(method.getParameterType(i)));
+            Map<CallSiteReference, Set<MethodReference>> callSites = mergeCallSites(cg, nodes);
+            for (Set<MethodReference> targets : callSites.values())
+                for (MethodReference t : targets)
+                    if (visited.add(t)) worklist.add(t);
+            writeReachableMethod(writer, descriptors, method, nodes.iterator().next().getMethod(), callSites);
         }
+        writer.endArray();
+        writer.endObject();
+    }
 
-        jsonObject.addProperty("name", name);
-        jsonObject.addProperty("declaringClass", declaringClass);
-        jsonObject.addProperty("returnType", returnType);
-        jsonObject.addProperty("parameterTypes", returnType);
+    /**
+     * Same output as {@link #write(CallGraph, JsonWriter)}, but the reachable methods are found first and then rendered
+     * in parallel (each one with its own {@link JsonWriter}, separated by commas).
+     * <p>
+     * When pretty printing, each method is rendered on its own and then shifted to the depth it has in the sequential
+     * output. Strings are escaped by {@link JsonWriter}, so every line break in a rendered method is a structural one.
+     */
+    private void saveInParallel(CallGraph cg, File outputFile) {
+        MethodDescriptors descriptors = new MethodDescriptors();
+        List<ReachableMethod> methods = collectReachableMethods(cg);
+        String separator = prettyPrinting ? ",\n" + METHOD_INDENT : ",";
+        try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(outputFile), 1 << 16)) {
+            if (methods.isEmpty()) {
+                stream.write((prettyPrinting ? "{\n" + INDENT + "\"reachableMethods\": []\n}" : "{\"reachableMethods\":[]}").getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            stream.write((prettyPrinting ? "{\n" + INDENT + "\"reachableMethods\": [\n" + METHOD_INDENT : "{\"reachableMethods\":[").getBytes(StandardCharsets.UTF_8));
+            new PartitionedWriter(outputThreads).write(methods, (chunk, chunkIndex, out) -> {
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (chunkIndex > 0 || i > 0) out.write(separator);
+                    ReachableMethod method = chunk.get(i);
+                    StringWriter rendered = new StringWriter();
+                    JsonWriter writer = new JsonWriter(rendered);
+                    writer.setHtmlSafe(false);
+                    if (prettyPrinting) writer.setIndent(INDENT);
+                    writeReachableMethod(writer, descriptors, method.reference, method.method, method.callSites);
+                    writer.flush();
+                    out.write(prettyPrinting ? rendered.toString().replace("\n", "\n" + METHOD_INDENT) : rendered.toString());
+                }
+            }, stream);
+            stream.write((prettyPrinting ? "\n" + INDENT + "]\n}" : "]}").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-        return jsonObject;
+    /**
+     * @return the methods with at least one node (and their merged call sites), in the same (breadth-first) order used by {@link #write(CallGraph, JsonWriter)}
+     */
+    private static List<ReachableMethod> collectReachableMethods(CallGraph cg) {
+        List<ReachableMethod> methods = new ArrayList<>();
+        Queue<MethodReference> worklist = new ArrayDeque<>();
+        Set<MethodReference> visited = new HashSet<>();
+        for (CGNode entrypoint : cg.getEntrypointNodes()) {
+            MethodReference m = entrypoint.getMethod().getReference();
+            if (visited.add(m)) worklist.add(m);
+        }
+        while (!worklist.isEmpty()) {
+            MethodReference method = worklist.poll();
+            Set<CGNode> nodes = cg.getNodes(method);
+            if (nodes.isEmpty()) continue;
+            Map<CallSiteReference, Set<MethodReference>> callSites = mergeCallSites(cg, nodes);
+            methods.add(new ReachableMethod(method, nodes.iterator().next().getMethod(), callSites));
+            for (Set<MethodReference> targets : callSites.values())
+                for (MethodReference t : targets)
+                    if (visited.add(t)) worklist.add(t);
+        }
+        return methods;
+    }
+
+    /**
+     * Merges the call sites (and their targets) of all contexts of a method.
+     *
+     * @param cg    call graph
+     * @param nodes the nodes of a method
+     * @return call site -> target methods (in the order they were found)
+     */
+    private static Map<CallSiteReference, Set<MethodReference>> mergeCallSites(CallGraph cg, Set<CGNode> nodes) {
+        Map<CallSiteReference, Set<MethodReference>> callSites = new LinkedHashMap<>();
+        for (CGNode node : nodes) {
+            for (Iterator<CallSiteReference> it = node.iterateCallSites(); it.hasNext(); ) {
+                CallSiteReference cs = it.next();
+                Set<MethodReference> targets = callSites.computeIfAbsent(cs, k -> new LinkedHashSet<>());
+                for (CGNode target : cg.getPossibleTargets(node, cs))
+                    targets.add(target.getMethod().getReference());
+            }
+        }
+        return callSites;
+    }
+
+    //    ReachableMethod(method: Method, callSites: Set[CallSite])
+    private static void writeReachableMethod(JsonWriter writer, MethodDescriptors descriptors, MethodReference method, IMethod iMethod,
+                                             Map<CallSiteReference, Set<MethodReference>> callSites) throws IOException {
+        writer.beginObject();
+        writer.name("method");
+        descriptors.write(writer, method);
+        writer.name("callSites");
+        writer.beginArray();
+        for (Map.Entry<CallSiteReference, Set<MethodReference>> entry : callSites.entrySet())
+            writeCallSite(writer, descriptors, iMethod, entry.getKey(), entry.getValue());
+        writer.endArray();
+        writer.endObject();
     }
 
     //    CallSite(declaredTarget: Method, line: Int, pc: Option[Int], targets: Set[Method])
-    private static JsonObject callsiteToJson(CallGraph cg, CGNode cgNode, CallSiteReference cs) {
-        JsonObject jsonObject = new JsonObject();
-        MethodReference declaredTarget = cs.getDeclaredTarget();
+    private static void writeCallSite(JsonWriter writer, MethodDescriptors descriptors, IMethod caller, CallSiteReference cs, Set<MethodReference> targets) throws IOException {
         int pc = cs.getProgramCounter();
-        int lineno = -1;
+        int lineno;
         try {
-            lineno = cgNode.getMethod().getLineNumber(pc);
+            lineno = caller.getLineNumber(pc);
         } catch (ArrayIndexOutOfBoundsException e) {
             lineno = -1;
         }
-        jsonObject.add("declaredTarget", methodToJson(declaredTarget));
-        jsonObject.addProperty("line", lineno);
-        jsonObject.addProperty("pc", pc);
-
-        JsonArray targets = new JsonArray();
-        for (CGNode possibleTarget : cg.getPossibleTargets(cgNode, cs)) {
-            targets.add(methodToJson(possibleTarget.getMethod().getReference()));
-        }
-
-
-        jsonObject.add("targets", targets);
-
-
-        return jsonObject;
+        writer.beginObject();
+        writer.name("declaredTarget");
+        descriptors.write(writer, cs.getDeclaredTarget());
+        writer.name("line").value(lineno);
+        writer.name("pc").value(pc);
+        writer.name("targets");
+        writer.beginArray();
+        for (MethodReference target : targets)
+            descriptors.write(writer, target);
+        writer.endArray();
+        writer.endObject();
     }
 
-
     /**
-     * Saves a file in a given format.
-     *
-     * @param cg         call graph
-     * @param outputFile where to save the file
+     * A method to be rendered, along with the call sites merged from all of its nodes.
      */
-    @Override
-    public void save(CallGraph cg, File outputFile) {
-
-        Queue<CGNode> worklist = new LinkedList(cg.getEntrypointNodes());
-        Set<CGNode> processed = new HashSet<CGNode>();
+    private static class ReachableMethod {
+        private final MethodReference reference;
+        private final IMethod method;
+        private final Map<CallSiteReference, Set<MethodReference>> callSites;
 
-        Gson gson = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create();
-        JsonObject results = new JsonObject();
-        JsonArray reachableMethods = new JsonArray();
+        private ReachableMethod(MethodReference reference, IMethod method, Map<CallSiteReference, Set<MethodReference>> callSites) {
+            this.reference = reference;
+            this.method = method;
+            this.callSites = callSites;
+        }
+    }
 
-        // FORMAT:
-        //    ReachableMethod(method: Method, callSites: Set[CallSite])
-        //    CallSite(declaredTarget: Method, line: Int, pc: Option[Int], targets: Set[Method])
-        //    Method(name: String, declaringClass: String, returnType: String, parameterTypes: List[String])
-        while (!worklist.isEmpty()) {
-            CGNode cgNode = worklist.poll();
-            processed.add(cgNode);
-            Iterator<CallSiteReference> callSiteReferenceIterator = cgNode.iterateCallSites();
-            callSiteReferenceIterator.forEachRemaining(csr -> {
-                Set<CGNode> possibleTargets = cg.getPossibleTargets(cgNode, csr);
-                for (CGNode possibleTarget : possibleTargets) {
-                    if (!processed.contains(possibleTarget)) {
-                        worklist.add(possibleTarget);
-                    }
-                }
-            });
+    /**
+     * Interns the strings of a method (they are computed once per method, no matter how many times it is written).
+     * It can be shared by the threads that render the output.
+     */
+    private static class MethodDescriptors {
+        private final Map<MethodReference, String[]> descriptors = new ConcurrentHashMap<>();
 
+        // Method(name: String, declaringClass: String, returnType: String, parameterTypes: List[String])
+        private void write(JsonWriter writer, MethodReference method) throws IOException {
+            String[] descriptor = descriptors.computeIfAbsent(method, MethodDescriptors::compute);
+            writer.beginObject();
+            writer.name("name").value(descriptor[0]);
+            writer.name("declaringClass").value(descriptor[1]);
+            writer.name("returnType").value(descriptor[2]);
+            writer.name("parameterTypes");
+            writer.beginArray();
+            for (int i = 3; i < descriptor.length; i++)
+                writer.value(descriptor[i]);
+            writer.endArray();
+            writer.endObject();
         }
 
-
-        results.add("reachableMethods", reachableMethods);
-        // saves to file
-        try (Writer writer = new FileWriter(outputFile)) {
-            gson.toJson(results, writer);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        /**
+         * @return name, declaring class, return type and parameter types
+         */
+        private static String[] compute(MethodReference method) {
+            String[] descriptor = new String[3 + method.getNumberOfParameters()];
+            descriptor[0] = method.getName().toString();
+            descriptor[1] = toJVMString(method.getDeclaringClass());
+            descriptor[2] = toJVMString(method.getReturnType());
+            for (int i = 0; i < method.getNumberOfParameters(); i++)
+                descriptor[3 + i] = toJVMString(method.getParameterType(i));
+            return descriptor;
         }
     }
-
-
 }
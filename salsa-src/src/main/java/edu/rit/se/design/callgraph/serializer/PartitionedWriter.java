@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.serializer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * Renders a list of items (e.g., call graph nodes) in chunks on a pool of threads and writes the rendered chunks in order.
+ * At most two chunks per thread are buffered at any time, so memory stays bounded no matter how many items there are.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class PartitionedWriter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private final int threads;
+    private final int chunkSize;
+
+    public PartitionedWriter(int threads) {
+        this(threads, DEFAULT_CHUNK_SIZE);
+    }
+
+    public PartitionedWriter(int threads, int chunkSize) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be at least 1");
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be at least 1");
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Renders one chunk of items.
+     *
+     * @param <T> item type
+     */
+    public interface ChunkRenderer<T> {
+        /**
+         * @param chunk      the items of this chunk
+         * @param chunkIndex position of this chunk (the first one is 0)
+         * @param out        where the chunk is rendered
+         */
+        void render(List<T> chunk, int chunkIndex, Writer out) throws IOException;
+    }
+
+    /**
+     * Renders all items and writes them (in order) as UTF-8 to the output stream.
+     *
+     * @param items    items to be rendered
+     * @param renderer how a chunk of items is rendered
+     * @param out      output stream (it is flushed, but not closed)
+     */
+    public <T> void write(List<T> items, ChunkRenderer<T> renderer, OutputStream out) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Queue<Future<byte[]>> pending = new ArrayDeque<>();
+            int nChunks = (items.size() + chunkSize - 1) / chunkSize;
+            for (int c = 0; c < nChunks; c++) {
+                if (pending.size() >= 2 * threads) out.write(await(pending.poll()));
+                List<T> chunk = items.subList(c * chunkSize, Math.min(items.size(), (c + 1) * chunkSize));
+                int chunkIndex = c;
+                pending.add(pool.submit(() -> render(renderer, chunk, chunkIndex)));
+            }
+            while (!pending.isEmpty()) out.write(await(pending.poll()));
+            out.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static <T> byte[] render(ChunkRenderer<T> renderer, List<T> chunk, int chunkIndex) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(chunk.size() * 128);
+        try (Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+            renderer.render(chunk, chunkIndex, writer);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing the call graph");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+}
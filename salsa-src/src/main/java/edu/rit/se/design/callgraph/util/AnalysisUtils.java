@@ -16,6 +16,7 @@
 package edu.rit.se.design.callgraph.util;
 
 import com.ibm.wala.cast.ir.ssa.AstIRFactory;
+import com.ibm.wala.classLoader.ClassLoaderFactory;
 import com.ibm.wala.ipa.callgraph.*;
 import com.ibm.wala.ipa.callgraph.impl.Util;
 import com.ibm.wala.ipa.cha.ClassHierarchyException;
@@ -44,6 +45,13 @@ public class AnalysisUtils {
         return ClassHierarchyFactory.make(scope);
     }
 
+    /**
+     * @param factory creates the class loaders of the hierarchy (e.g., a {@link SharedPrimordialClassLoaderFactory})
+     */
+    public static IClassHierarchy makeIClassHierarchy(AnalysisScope scope, ClassLoaderFactory factory) throws ClassHierarchyException {
+        return ClassHierarchyFactory.make(scope, factory);
+    }
+
     public static AnalysisOptions makeAnalysisOptions(AnalysisScope scope, IClassHierarchy cha) {
         return makeAnalysisOptions(scope, cha, false);
     }
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.util;
+
+import com.ibm.wala.classLoader.JarFileModule;
+import com.ibm.wala.classLoader.Module;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.types.ClassLoaderReference;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Cheap fingerprint of the classpath of an {@link AnalysisScope}, used as the key for data persisted across runs.
+ * Jar files are identified by their path, size and last modification time; other modules by their description.
+ * The contents of the exclusions file are part of the fingerprint, since they change which classes are in the hierarchy.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class ClasspathFingerprint {
+
+    /**
+     * @param scope      analysis scope
+     * @param exclusions exclusions file used to create the scope (it may be null)
+     * @return an hexadecimal SHA-256 digest of the modules in the scope (in loader order) and of the exclusions
+     */
+    public static String compute(AnalysisScope scope, File exclusions) {
+        MessageDigest digest = newDigest();
+        for (ClassLoaderReference loader : scope.getLoaders()) {
+            update(digest, loader.getName().toString());
+            for (Module module : scope.getModules(loader)) {
+                update(digest, describe(module));
+            }
+        }
+        if (exclusions != null) digest.update(readExclusions(exclusions));
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @param scope analysis scope
+     * @return an hexadecimal SHA-256 digest of where the modules in the scope are (it does not change when the jars are modified)
+     */
+    public static String computeLocation(AnalysisScope scope) {
+        MessageDigest digest = newDigest();
+        for (ClassLoaderReference loader : scope.getLoaders()) {
+            update(digest, loader.getName().toString());
+            for (Module module : scope.getModules(loader)) {
+                update(digest, module instanceof JarFileModule ? ((JarFileModule) module).getAbsolutePath() : module.toString());
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Reads the exclusions the same way WALA does (from the file if it exists, otherwise from a resource with the same name).
+     */
+    private static byte[] readExclusions(File exclusions) {
+        try {
+            if (exclusions.isFile()) return Files.readAllBytes(exclusions.toPath());
+            try (InputStream in = ClasspathFingerprint.class.getClassLoader().getResourceAsStream(exclusions.getName())) {
+                if (in != null) return IOUtils.toByteArray(in);
+            }
+        } catch (IOException e) {
+            // falls back to the path
+        }
+        return exclusions.getPath().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String describe(Module module) {
+        if (module instanceof JarFileModule) {
+            File file = new File(((JarFileModule) module).getAbsolutePath());
+            return file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+        }
+        return module.toString();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.util;
+
+import com.ibm.wala.classLoader.IClass;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Bounded (LRU) cache in front of {@link SerializationUtils#computePossibleTypes(SerializableTypeIndex, IClass, IClass, boolean, int)}.
+ * Entries are kept across solver iterations. Like the {@link SerializableTypeIndex} it is built upon, the cache assumes
+ * that the class hierarchy does not change during the analysis.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class PossibleTypesCache {
+
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private final SerializableTypeIndex index;
+    private final Map<Key, Set<IClass>> entries;
+    private long hits = 0;
+    private long misses = 0;
+
+    public PossibleTypesCache(SerializableTypeIndex index, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.index = index;
+        this.entries = new LinkedHashMap<Key, Set<IClass>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Set<IClass>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public PossibleTypesCache(SerializableTypeIndex index) {
+        this(index, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Compute the (unmodifiable) set of possible types for a given <pre>object</pre>, reusing previous results whenever possible.
+     *
+     * @param declaringClass   the class where the object was declared.
+     * @param type             the static type of the object.
+     * @param prune            whether we should prune or not upon large sets of possible types
+     * @param pruningThreshold the size tolerated; above this threshold the set is trimmed to include application-only classes
+     * @return
+     */
+    public synchronized Set<IClass> computePossibleTypes(IClass declaringClass, IClass type, boolean prune, int pruningThreshold) {
+        Key key = new Key(declaringClass, type, prune, pruningThreshold);
+        Set<IClass> result = entries.get(key);
+        if (result != null) {
+            hits++;
+            return result;
+        }
+        misses++;
+        result = Collections.unmodifiableSet(SerializationUtils.computePossibleTypes(index, declaringClass, type, prune, pruningThreshold));
+        entries.put(key, result);
+        return result;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("PossibleTypesCache{size=%d, hits=%d, misses=%d, hitRate=%.2f}", entries.size(), hits, misses, getHitRate());
+    }
+
+    private static class Key {
+        private final IClass declaringClass;
+        private final IClass type;
+        private final boolean prune;
+        private final int pruningThreshold;
+
+        private Key(IClass declaringClass, IClass type, boolean prune, int pruningThreshold) {
+            this.declaringClass = declaringClass;
+            this.type = type;
+            this.prune = prune;
+            this.pruningThreshold = pruningThreshold;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return prune == key.prune &&
+                    pruningThreshold == key.pruningThreshold &&
+                    Objects.equals(declaringClass, key.declaringClass) &&
+                    Objects.equals(type, key.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(declaringClass, type, prune, pruningThreshold);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.util;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IClassLoader;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.types.TypeReference;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * The serializable classes in a class hierarchy, along with the callbacks they implement
+ * (as a mask of {@link SerializationCallback}, including inherited methods).
+ * <p>
+ * Computing it requires going through every class in the hierarchy, so the result can be persisted in a cache directory.
+ * The file is named after where the classpath is ({@link ClasspathFingerprint#computeLocation}) and its
+ * {@link ClasspathFingerprint}, and it is memory-mapped when loaded. When an index is saved, the files for older versions
+ * of the same classpath are deleted.
+ * Binary format (big endian):
+ * <pre>
+ * int magic, int version, int #classes in the hierarchy, int #entries,
+ * entries: (int length, UTF-8 bytes) loader name, (int length, UTF-8 bytes) type name, byte callback mask
+ * </pre>
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class SerializableClassIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(SerializableClassIndex.class.getName());
+    private static final int MAGIC = 0x53414c53; // "SALS"
+    private static final int VERSION = 1;
+
+    private final Set<IClass> serializableClasses;
+    private final Map<IClass, Integer> callbackMasks;
+
+    private SerializableClassIndex(Map<IClass, Integer> callbackMasks) {
+        this.callbackMasks = callbackMasks;
+        this.serializableClasses = Collections.unmodifiableSet(callbackMasks.keySet());
+    }
+
+    /**
+     * Loads the index from the cache directory, or computes it (and saves it there) if it is not cached yet.
+     *
+     * @param cha        class hierarchy
+     * @param exclusions exclusions file used to create the scope of the class hierarchy (it may be null)
+     * @param cacheDir   where the index is persisted (if null, the index is always computed)
+     * @return the index for this class hierarchy
+     */
+    public static SerializableClassIndex findOrCompute(IClassHierarchy cha, File exclusions, File cacheDir) {
+        if (cacheDir == null) return compute(cha);
+
+        String prefix = "serializable-" + ClasspathFingerprint.computeLocation(cha.getScope()).substring(0, 16) + "-";
+        File file = new File(cacheDir, prefix + ClasspathFingerprint.compute(cha.getScope(), exclusions) + ".bin");
+        if (file.isFile()) {
+            try {
+                SerializableClassIndex index = load(cha, file);
+                if (index != null) return index;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warning("Could not load " + file + ": " + e.getMessage());
+            }
+        }
+        SerializableClassIndex index = compute(cha);
+        try {
+            index.save(cha, file);
+            pruneStale(cacheDir, prefix, file);
+        } catch (IOException e) {
+            LOGGER.warning("Could not save " + file + ": " + e.getMessage());
+        }
+        return index;
+    }
+
+    /**
+     * Deletes the indexes computed for older versions of the same classpath (i.e., with the same prefix).
+     */
+    private static void pruneStale(File cacheDir, String prefix, File current) {
+        File[] stale = cacheDir.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(".bin") && !name.equals(current.getName()));
+        if (stale == null) return;
+        for (File f : stale) {
+            if (!f.delete()) LOGGER.warning("Could not delete stale index " + f);
+        }
+    }
+
+    /**
+     * Computes the index by iterating every class in the hierarchy.
+     *
+     * @param cha class hierarchy
+     * @return the index for this class hierarchy
+     */
+    public static SerializableClassIndex compute(IClassHierarchy cha) {
+        Map<IClass, Integer> masks = new HashMap<>();
+        IClass serialInterface = cha.lookupClass(TypeReference.JavaIoSerializable);
+        // iterates all classes in the classpath to compute what is serializable or not
+        for (IClass c : cha) {
+            if (cha.implementsInterface(c, serialInterface)) {
+                masks.put(c, computeCallbackMask(c));
+            }
+        }
+        return new SerializableClassIndex(masks);
+    }
+
+    /**
+     * @param c a class
+     * @return the mask of {@link SerializationCallback} resolved for this class (declared or inherited)
+     */
+    public static int computeCallbackMask(IClass c) {
+        int mask = 0;
+        for (SerializationCallback callback : SerializationCallback.values()) {
+            if (c.getMethod(callback.getSelector()) != null) mask |= callback.getMask();
+        }
+        return mask;
+    }
+
+    /**
+     * @return null if the file is stale (i.e., it does not match the class hierarchy)
+     */
+    private static SerializableClassIndex load(IClassHierarchy cha, File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return null;
+            if (buffer.getInt() != cha.getNumberOfClasses()) return null;
+
+            Map<String, ClassLoaderReference> loaders = new HashMap<>();
+            for (IClassLoader loader : cha.getLoaders())
+                loaders.put(loader.getReference().getName().toString(), loader.getReference());
+
+            int n = buffer.getInt();
+            Map<IClass, Integer> masks = new HashMap<>(n * 2);
+            for (int i = 0; i < n; i++) {
+                ClassLoaderReference loader = loaders.get(readString(buffer));
+                String typeName = readString(buffer);
+                int mask = buffer.get();
+                if (loader == null) return null;
+                IClass c = cha.lookupClass(TypeReference.findOrCreate(loader, typeName));
+                if (c == null) return null;
+                masks.put(c, mask);
+            }
+            return new SerializableClassIndex(masks);
+        }
+    }
+
+    private void save(IClassHierarchy cha, File file) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        // written to a temporary file first, so concurrent runs never see a partial index
+        File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(cha.getNumberOfClasses());
+            out.writeInt(callbackMasks.size());
+            for (Map.Entry<IClass, Integer> entry : callbackMasks.entrySet()) {
+                IClass c = entry.getKey();
+                writeString(out, c.getClassLoader().getReference().getName().toString());
+                writeString(out, c.getName().toString());
+                out.writeByte(entry.getValue());
+            }
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public Set<IClass> getSerializableClasses() {
+        return serializableClasses;
+    }
+
+    /**
+     * @param c a class
+     * @return the mask of {@link SerializationCallback} implemented by the class (0 if it is not serializable)
+     */
+    public int getCallbackMask(IClass c) {
+        return callbackMasks.getOrDefault(c, 0);
+    }
+
+    /**
+     * @param c a class
+     * @return true if the class is serializable
+     */
+    public boolean isSerializable(IClass c) {
+        return callbackMasks.containsKey(c);
+    }
+}
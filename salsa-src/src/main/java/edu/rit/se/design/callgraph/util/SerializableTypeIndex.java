@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.util;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.shrikeBT.Constants;
+import com.ibm.wala.util.strings.Atom;
+
+import java.util.*;
+
+/**
+ * Index from a static type to the concrete (non-abstract) serializable classes that are assignable to it.
+ * It replaces the linear scan over all serializable classes performed by {@link SerializationUtils#computePossibleTypes}.
+ * <p>
+ * Each bucket is split by accessibility (as defined by {@link SerializationUtils#isAccessible(IClass, IClass)}):
+ * public classes are accessible from anywhere, whereas package-private classes are keyed by their package.
+ * The index is built once per call graph construction (it is held by the serialization handler) and queries cost O(result).
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class SerializableTypeIndex {
+
+    private final IClassHierarchy cha;
+    private final Set<IClass> serializableClasses;
+    /**
+     * static type -> accessible subtypes
+     */
+    private final Map<IClass, Bucket> buckets;
+
+    /**
+     * Builds the index.
+     *
+     * @param cha                 class hierarchy
+     * @param serializableClasses set of classes in the class hierarchy that are serializable
+     */
+    public SerializableTypeIndex(IClassHierarchy cha, Set<IClass> serializableClasses) {
+        this.cha = cha;
+        this.serializableClasses = Collections.unmodifiableSet(serializableClasses);
+        this.buckets = new HashMap<>();
+        for (IClass c : serializableClasses) {
+            if (c.isInterface() || c.isAbstract()) continue;
+            boolean isPublic = c.isPublic();
+            if (!isPublic && !isPackageAccessible(c)) continue; // never accessible from another class
+            for (IClass supertype : computeSupertypes(c)) {
+                buckets.computeIfAbsent(supertype, k -> new Bucket()).add(c, isPublic);
+            }
+        }
+    }
+
+    private static boolean isPackageAccessible(IClass c) {
+        int modifiers = c.getModifiers();
+        return (modifiers & (Constants.ACC_PUBLIC | Constants.ACC_PRIVATE | Constants.ACC_PROTECTED)) == 0;
+    }
+
+    /**
+     * @param c a class
+     * @return the class itself, all its superclasses and all the interfaces it implements
+     */
+    private static Set<IClass> computeSupertypes(IClass c) {
+        Set<IClass> supertypes = new HashSet<>();
+        for (IClass k = c; k != null; k = k.getSuperclass())
+            supertypes.add(k);
+        supertypes.addAll(c.getAllImplementedInterfaces());
+        return supertypes;
+    }
+
+    public IClassHierarchy getClassHierarchy() {
+        return cha;
+    }
+
+    public Set<IClass> getSerializableClasses() {
+        return serializableClasses;
+    }
+
+    /**
+     * Computes the concrete serializable classes that are subtypes of staticType and accessible from declaringClass.
+     *
+     * @param declaringClass the class where the object was declared
+     * @param staticType     the static type of the object
+     * @return a fresh set with the matching classes
+     */
+    public Set<IClass> getAccessibleSubtypes(IClass declaringClass, IClass staticType) {
+        if (staticType == null) return new HashSet<>();
+        Bucket bucket = buckets.get(staticType);
+        if (bucket == null) return new HashSet<>();
+
+        List<IClass> packageClasses = bucket.packagePrivateClasses.getOrDefault(declaringClass.getName().getPackage(), Collections.emptyList());
+        Set<IClass> result = new HashSet<>(bucket.publicClasses.size() + packageClasses.size());
+        result.addAll(bucket.publicClasses);
+        result.addAll(packageClasses);
+        return result;
+    }
+
+    /**
+     * Subtypes of a given static type, grouped by accessibility.
+     */
+    private static class Bucket {
+        private final List<IClass> publicClasses = new ArrayList<>();
+        // package name -> package-private classes (the default package is keyed by null)
+        private final Map<Atom, List<IClass>> packagePrivateClasses = new HashMap<>();
+
+        private void add(IClass c, boolean isPublic) {
+            if (isPublic)
+                publicClasses.add(c);
+            else
+                packagePrivateClasses.computeIfAbsent(c.getName().getPackage(), k -> new ArrayList<>()).add(c);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.util;
+
+import com.ibm.wala.types.Selector;
+
+/**
+ * Callback methods that customize how an object is serialized or deserialized.
+ * Each callback has a bit, so the callbacks implemented by a class can be stored as a mask.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public enum SerializationCallback {
+    READ_OBJECT(NameUtils.readObjectCallbackSelector),
+    READ_OBJECT_NO_DATA(NameUtils.readObjectNoDataCallbackSelector),
+    READ_RESOLVE(NameUtils.readResolveCallbackSelector),
+    VALIDATE_OBJECT(NameUtils.validateObjectCallbackSelector),
+    WRITE_OBJECT(NameUtils.writeObjectCallbackSelector),
+    WRITE_REPLACE(NameUtils.writeReplaceCallbackSelector);
+
+    private final Selector selector;
+
+    SerializationCallback(Selector selector) {
+        this.selector = selector;
+    }
+
+    public Selector getSelector() {
+        return selector;
+    }
+
+    public int getMask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * @param mask a mask of callbacks
+     * @return true if this callback is in the mask
+     */
+    public boolean isIn(int mask) {
+        return (mask & getMask()) != 0;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.util;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IMethod;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves all the {@link SerializationCallback} methods of a class at once and remembers them,
+ * so that callbacks are looked up (i.e., the class hierarchy is walked) only once per class.
+ * Classes in the {@link SerializableClassIndex} only need to resolve the callbacks in their precomputed mask.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class SerializationCallbackIndex {
+
+    private static final IMethod[] NO_CALLBACKS = new IMethod[SerializationCallback.values().length];
+
+    private final SerializableClassIndex serializableClassIndex;
+    private final Map<IClass, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param serializableClassIndex precomputed callback masks for serializable classes (can be null)
+     */
+    public SerializationCallbackIndex(SerializableClassIndex serializableClassIndex) {
+        this.serializableClassIndex = serializableClassIndex;
+    }
+
+    /**
+     * @param klass    a class
+     * @param callback the callback to be looked up
+     * @return the callback method (declared in the class or inherited), or null if it is not implemented
+     */
+    public IMethod getCallback(IClass klass, SerializationCallback callback) {
+        return findOrCreate(klass).methods[callback.ordinal()];
+    }
+
+    /**
+     * @param klass a class
+     * @return the mask of {@link SerializationCallback} implemented by the class (declared or inherited)
+     */
+    public int getMask(IClass klass) {
+        return findOrCreate(klass).mask;
+    }
+
+    private Entry findOrCreate(IClass klass) {
+        Entry entry = entries.get(klass);
+        if (entry == null) {
+            entry = resolve(klass);
+            entries.putIfAbsent(klass, entry);
+        }
+        return entry;
+    }
+
+    private Entry resolve(IClass klass) {
+        boolean isIndexed = serializableClassIndex != null && serializableClassIndex.isSerializable(klass);
+        int candidates = isIndexed ? serializableClassIndex.getCallbackMask(klass) : ~0;
+        if (candidates == 0) return new Entry(0, NO_CALLBACKS);
+
+        int mask = 0;
+        IMethod[] methods = new IMethod[SerializationCallback.values().length];
+        for (SerializationCallback callback : SerializationCallback.values()) {
+            if (!callback.isIn(candidates)) continue;
+            IMethod m = klass.getMethod(callback.getSelector());
+            if (m != null) {
+                methods[callback.ordinal()] = m;
+                mask |= callback.getMask();
+            }
+        }
+        return new Entry(mask, mask == 0 ? NO_CALLBACKS : methods);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final int mask;
+        private final IMethod[] methods;
+
+        private Entry(int mask, IMethod[] methods) {
+            this.mask = mask;
+            this.methods = methods;
+        }
+    }
+}
@@ -45,6 +45,11 @@ public class SerializationUtils {
     public static final TypeReference JavaUtilArrayList = TypeReference.findOrCreate(Primordial, string2TypeName("Ljava/util/ArrayList"));
     public static final TypeReference JavaUtilHashMap = TypeReference.findOrCreate(Primordial, string2TypeName("Ljava/util/HashMap"));
 
+    /**
+     * enable for cross-checking the results of the {@link SerializableTypeIndex} against the original linear scan
+     */
+    public static boolean VERIFY_TYPE_INDEX = false;
+
 
     /**
      * Determines the category of a {@link TypeReference} as listed in {@link TypeCategory}.
@@ -138,6 +143,51 @@ public class SerializationUtils {
 
     }
 
+    /**
+     * Compute the set of possible types for a given <pre>object</pre> using a precomputed {@link SerializableTypeIndex}.
+     * It yields the same results as {@link #computePossibleTypes(IClassHierarchy, IClass, IClass, Set, boolean, int)},
+     * which is still used for cross-checking the results when {@link #VERIFY_TYPE_INDEX} is enabled.
+     *
+     * @param index            index of the serializable classes in the class hierarchy.
+     * @param declaringClass   the class where the object was declared.
+     * @param type             the static type of the object.
+     * @param prune            whether we should prune or not upon large sets of possible types
+     * @param pruningThreshold the size tolerated; above this threshold the set is trimmed to include application-only classes
+     * @return
+     */
+    public static Set<IClass> computePossibleTypes(SerializableTypeIndex index, IClass declaringClass, IClass type, boolean prune, int pruningThreshold) {
+        if (type == null) return Collections.emptySet();
+        IClassHierarchy cha = index.getClassHierarchy();
+        TypeCategory typeCategory = getTypeCategory(cha, type.getReference());
+
+        switch (typeCategory) {
+            case LIST:
+            case SET:
+            case MAP:
+            case OBJECT:
+            case ARRAY:
+                IClass fieldClassType = typeCategory == TypeCategory.ARRAY ?
+                        cha.lookupClass(type.getReference().getInnermostElementType()) : // if is array, the concrete type is based on T[]
+                        type;
+
+                Set<IClass> concreteTypes = index.getAccessibleSubtypes(declaringClass, fieldClassType);
+
+                // prune away primordial classes if the computed sets are fairly large
+                if (prune && concreteTypes.size() > pruningThreshold) {
+                    concreteTypes.removeIf(c -> !isApplicationScope(c));
+                }
+
+                if (VERIFY_TYPE_INDEX) {
+                    Set<IClass> expected = computePossibleTypes(cha, declaringClass, type, index.getSerializableClasses(), prune, pruningThreshold);
+                    if (!expected.equals(concreteTypes))
+                        throw new IllegalStateException(String.format("Type index mismatch for %s declared in %s: expected %s but got %s", type, declaringClass, expected, concreteTypes));
+                }
+                return concreteTypes;
+        }
+
+        throw new UnsupportedOperationException("We only support the computation of possible set for " + Arrays.toString(TypeCategory.values()));
+    }
+
 
     /**
      * Is the sClass accessible to fieldClass?
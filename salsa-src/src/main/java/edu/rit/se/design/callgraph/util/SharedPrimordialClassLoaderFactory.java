@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.util;
+
+import com.ibm.wala.classLoader.ClassLoaderFactoryImpl;
+import com.ibm.wala.classLoader.IClassLoader;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.util.config.AnalysisScopeReader;
+import com.ibm.wala.util.config.SetOfClasses;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class loader factory that shares the Primordial (JRE) and Extension loaders across class hierarchies,
+ * so the JRE classes are loaded once when analyzing several programs against the same JRE in the same JVM.
+ * Application loaders are still created for each class hierarchy.
+ * <p>
+ * All factories created from the same root (see {@link #SharedPrimordialClassLoaderFactory(SetOfClasses, SharedPrimordialClassLoaderFactory)})
+ * share the loaders. Their scopes must have the same primordial/extension modules and exclusions.
+ * The classes of the shared loaders belong to the first class hierarchy built with them, which stays reachable for as long
+ * as the loaders are used; {@link #makeRoot(File)} builds that hierarchy without application classes.
+ * <p>
+ * WALA computes parts of its classes lazily (e.g., inherited methods, bytecode) and does not synchronize it,
+ * hence the shared loaders must only be used by one thread at a time (e.g., one root per worker thread).
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class SharedPrimordialClassLoaderFactory extends ClassLoaderFactoryImpl {
+
+    private final Map<ClassLoaderReference, IClassLoader> sharedLoaders;
+
+    /**
+     * Creates a root factory (the shared loaders are created by the first class hierarchy made with it).
+     *
+     * @param exclusions classes excluded from the analysis
+     */
+    public SharedPrimordialClassLoaderFactory(SetOfClasses exclusions) {
+        super(exclusions);
+        this.sharedLoaders = new HashMap<>();
+    }
+
+    /**
+     * Creates a factory that reuses the Primordial and Extension loaders of another factory.
+     *
+     * @param exclusions classes excluded from the analysis
+     * @param root       factory whose loaders are shared
+     */
+    public SharedPrimordialClassLoaderFactory(SetOfClasses exclusions, SharedPrimordialClassLoaderFactory root) {
+        super(exclusions);
+        if (root == null) throw new IllegalArgumentException("root cannot be null");
+        this.sharedLoaders = root.sharedLoaders;
+    }
+
+    /**
+     * Creates a root factory, whose shared loaders are loaded by a class hierarchy with only the JRE classes.
+     *
+     * @param exclusions exclusions file (the same one used for the scopes of the programs to be analyzed)
+     * @return a root factory with its loaders already created
+     */
+    public static SharedPrimordialClassLoaderFactory makeRoot(File exclusions) throws IOException, ClassHierarchyException {
+        AnalysisScope jreScope = AnalysisScopeReader.makePrimordialScope(exclusions);
+        SharedPrimordialClassLoaderFactory root = new SharedPrimordialClassLoaderFactory(jreScope.getExclusions());
+        ClassHierarchyFactory.make(jreScope, root);
+        return root;
+    }
+
+    private static boolean isShared(ClassLoaderReference reference) {
+        return ClassLoaderReference.Primordial.equals(reference) || ClassLoaderReference.Extension.equals(reference);
+    }
+
+    @Override
+    public IClassLoader getLoader(ClassLoaderReference classLoaderReference, IClassHierarchy cha, AnalysisScope scope) throws IOException {
+        if (!isShared(classLoaderReference))
+            return super.getLoader(classLoaderReference, cha, scope);
+
+        synchronized (sharedLoaders) {
+            IClassLoader loader = sharedLoaders.get(classLoaderReference);
+            if (loader == null) {
+                ClassLoaderReference parentRef = classLoaderReference.getParent();
+                IClassLoader parent = parentRef == null ? null : getLoader(parentRef, cha, scope);
+                loader = makeNewClassLoader(classLoaderReference, cha, parent, scope);
+                sharedLoaders.put(classLoaderReference, loader);
+            }
+            return loader;
+        }
+    }
+
+    /**
+     * @return whether the shared loaders were already created
+     */
+    public boolean isInitialized() {
+        synchronized (sharedLoaders) {
+            return !sharedLoaders.isEmpty();
+        }
+    }
+}
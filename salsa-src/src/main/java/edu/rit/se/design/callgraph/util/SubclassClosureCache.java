@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.util;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static edu.rit.se.design.dodo.utils.wala.WalaUtils.isApplicationScope;
+
+/**
+ * Memoizes {@link IClassHierarchy#computeSubClasses} for the types that deserialized objects are cast to.
+ * The closures are immutable and shared across call sites and solver iterations; they are dropped when classes are added to the hierarchy.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class SubclassClosureCache {
+
+    private final IClassHierarchy cha;
+    /**
+     * If true, then closures larger than the pruningThreshold only keep the classes in the application scope
+     * (same policy as {@link edu.rit.se.design.callgraph.dispatcher.SerializationDispatcher})
+     */
+    private final boolean prune;
+    /**
+     * Cut-off threshold
+     */
+    private final int pruningThreshold;
+    private final Map<IClass, Collection<IClass>> closures = new ConcurrentHashMap<>();
+    /**
+     * number of classes in the hierarchy when the closures were computed
+     */
+    private volatile int chaSize;
+
+    public SubclassClosureCache(IClassHierarchy cha, boolean prune, int pruningThreshold) {
+        if (pruningThreshold < 0) throw new IllegalArgumentException("pruningThreshold cannot be negative");
+        this.cha = cha;
+        this.prune = prune;
+        this.pruningThreshold = pruningThreshold;
+        this.chaSize = cha.getNumberOfClasses();
+    }
+
+    public SubclassClosureCache(IClassHierarchy cha) {
+        this(cha, false, 100);
+    }
+
+    /**
+     * @param c a class
+     * @return an unmodifiable collection with the class and all its subclasses (pruned according to this cache's policy)
+     */
+    public Collection<IClass> getSubClasses(IClass c) {
+        if (cha.getNumberOfClasses() != chaSize) {
+            closures.clear();
+            chaSize = cha.getNumberOfClasses();
+        }
+        return closures.computeIfAbsent(c, this::computeClosure);
+    }
+
+    private Collection<IClass> computeClosure(IClass c) {
+        Collection<IClass> subClasses = cha.computeSubClasses(c.getReference());
+        if (prune && subClasses.size() > pruningThreshold) {
+            List<IClass> applicationClasses = new ArrayList<>();
+            for (IClass k : subClasses)
+                if (isApplicationScope(k)) applicationClasses.add(k);
+            return Collections.unmodifiableList(applicationClasses);
+        }
+        return Collections.unmodifiableList(new ArrayList<>(subClasses));
+    }
+
+    public int size() {
+        return closures.size();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.analysis;
+
+import com.ibm.wala.util.MonitorUtil;
+import edu.rit.se.design.callgraph.analysis.AnalysisBudget.Degradation;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks how {@link AnalysisBudget} detects that it was exceeded and escalates the degradation.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class AnalysisBudgetTest {
+
+    @Test
+    public void testUnlimitedBudget() {
+        AnalysisBudget budget = new AnalysisBudget(0, 0);
+        assertFalse(budget.isLimited());
+        assertFalse(budget.isExceeded());
+        assertFalse(budget.isBudgetLimited());
+    }
+
+    @Test
+    public void testNegativeBudgets() {
+        assertThrows(IllegalArgumentException.class, () -> new AnalysisBudget(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new AnalysisBudget(0, -1));
+    }
+
+    @Test
+    public void testEscalation() {
+        AnalysisBudget budget = new AnalysisBudget(1, 0);
+        assertEquals(Degradation.NONE, budget.getDegradation());
+        assertFalse(budget.isBudgetLimited());
+
+        assertEquals(Degradation.TIGHTENED_PRUNING, budget.escalate());
+        assertTrue(budget.isBudgetLimited());
+        assertEquals(Degradation.COLLAPSED_MODEL_CONTEXTS, budget.escalate());
+        assertEquals(Degradation.STOPPED_SERIALIZATION, budget.escalate());
+        assertFalse(budget.isCanceled());
+
+        // there is nothing left to degrade, so the construction is canceled
+        assertEquals(Degradation.STOPPED_SERIALIZATION, budget.escalate());
+        assertTrue(budget.isCanceled());
+        assertEquals(Degradation.STOPPED_SERIALIZATION, budget.getDegradation());
+    }
+
+    @Test
+    public void testTimeBudget() throws InterruptedException {
+        AnalysisBudget budget = new AnalysisBudget(10, 0);
+        assertTrue(budget.isLimited());
+        Thread.sleep(50);
+        assertTrue(budget.isExceeded());
+        assertFalse(new AnalysisBudget(Long.MAX_VALUE, 0).isExceeded());
+    }
+
+    @Test
+    public void testHeapBudget() {
+        // the live heap is never empty, and never as large as the maximum long
+        assertTrue(new AnalysisBudget(0, 1).isExceeded());
+        assertFalse(new AnalysisBudget(0, Long.MAX_VALUE).isExceeded());
+    }
+
+    @Test
+    public void testMonitorIsCanceledOnlyOnceSerializationStopped() throws InterruptedException {
+        AnalysisBudget budget = new AnalysisBudget(10, 0);
+        MonitorUtil.IProgressMonitor monitor = budget.wrap(null);
+        Thread.sleep(50);
+        assertTrue(budget.isExceeded());
+
+        // exceeded, but the analysis can still be degraded
+        assertFalse(monitor.isCanceled());
+        budget.escalate();
+        budget.escalate();
+        assertFalse(monitor.isCanceled());
+
+        budget.escalate();
+        assertTrue(monitor.isCanceled());
+        assertTrue(budget.isCanceled());
+        assertEquals("Analysis budget exhausted", monitor.getCancelMessage());
+    }
+
+    @Test
+    public void testMonitorForwardsCancellation() {
+        AnalysisBudget budget = new AnalysisBudget(Long.MAX_VALUE, 0);
+        CancelableMonitor delegate = new CancelableMonitor();
+        MonitorUtil.IProgressMonitor monitor = budget.wrap(delegate);
+        assertFalse(monitor.isCanceled());
+
+        delegate.canceled = true;
+        assertTrue(monitor.isCanceled());
+        assertFalse(budget.isCanceled());
+        assertEquals("canceled by the user", monitor.getCancelMessage());
+    }
+
+    private static class CancelableMonitor implements MonitorUtil.IProgressMonitor {
+        private boolean canceled = false;
+
+        @Override
+        public void beginTask(String task, int totalWork) {
+        }
+
+        @Override
+        public void subTask(String subTask) {
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public void done() {
+        }
+
+        @Override
+        public void worked(int units) {
+        }
+
+        @Override
+        public String getCancelMessage() {
+            return "canceled by the user";
+        }
+    }
+}
@@ -16,21 +16,26 @@
 package edu.rit.se.design.callgraph;
 
 import com.ibm.wala.classLoader.IMethod;
-import com.ibm.wala.ipa.callgraph.CGNode;
-import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.*;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
 import com.ibm.wala.types.*;
 import com.ibm.wala.util.graph.traverse.DFSAllPathsFinder;
 import com.ibm.wala.util.strings.Atom;
 import edu.rit.se.design.callgraph.analysis.PointerAnalysisPolicy;
+import edu.rit.se.design.callgraph.analysis.salsa.SalsaZeroXCallGraphBuilder;
 import edu.rit.se.design.callgraph.serializer.ICallGraphSerializer;
 import edu.rit.se.design.callgraph.serializer.JDynCallGraphSerializer;
 import edu.rit.se.design.dodo.utils.viz.GraphVisualizer;
 import org.junit.Assert;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.Set;
 
+import static edu.rit.se.design.callgraph.analysis.PointerAnalysisPolicy.PolicyType.ZeroXCFA;
+import static edu.rit.se.design.callgraph.util.AnalysisUtils.*;
 
 
 public class TestUtilities {
@@ -38,6 +43,26 @@ public class TestUtilities {
     public static final String TC_ROOT_FOLDER = System.getProperty("user.home") + "/Documents/Portfolio/GitHub/fse-2021-serialization/dataset/build/";
     public static final String EXCLUSIONS_FILE = "exclusions.txt";
     public static final String SOAP_2021_STATIC_CGS_FOLDER = System.getProperty("user.home") + "/Documents/Portfolio/GitHub/soap-2021-paper/static-cgs";
+    /**
+     * Test case from CATS that is shipped with the repository (used by unit tests that need a real class hierarchy)
+     */
+    public static final String SAMPLE_JAR = "../jars/Ser1-JRE1.8.jar";
+
+
+    public static IClassHierarchy makeSampleClassHierarchy() throws IOException, ClassHierarchyException {
+        return makeIClassHierarchy(makeAnalysisScope(SAMPLE_JAR, new File(EXCLUSIONS_FILE)));
+    }
+
+    /**
+     * @return the call graph of {@link #SAMPLE_JAR} computed by Salsa (0-1-CFA)
+     */
+    public static CallGraph computeSampleCallGraph() throws IOException, ClassHierarchyException, CallGraphBuilderCancelException {
+        AnalysisScope scope = makeAnalysisScope(SAMPLE_JAR, new File(EXCLUSIONS_FILE));
+        IClassHierarchy cha = makeIClassHierarchy(scope);
+        AnalysisOptions options = makeAnalysisOptions(scope, cha);
+        CallGraphBuilder builder = SalsaZeroXCallGraphBuilder.make(scope, options, makeAnalysisCache(), cha, new PointerAnalysisPolicy(ZeroXCFA, 1));
+        return builder.makeCallGraph(options, null);
+    }
 
 
     public static int findAllPath(CallGraph cg, MethodReference from, MethodReference to) {
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.model;
+
+import com.ibm.wala.analysis.reflection.JavaTypeContext;
+import com.ibm.wala.analysis.typeInference.PointType;
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.ipa.callgraph.Context;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.shrikeBT.IInvokeInstruction;
+import com.ibm.wala.ssa.SSAAbstractInvokeInstruction;
+import com.ibm.wala.ssa.SSANewInstruction;
+import com.ibm.wala.ssa.SSAOptions;
+import com.ibm.wala.types.*;
+import com.ibm.wala.util.strings.Atom;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static edu.rit.se.design.callgraph.TestUtilities.makeSampleClassHierarchy;
+import static edu.rit.se.design.callgraph.util.AnalysisUtils.makeAnalysisCache;
+import static edu.rit.se.design.callgraph.util.AnalysisUtils.makeAnalysisOptions;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the ensure* methods of {@link MethodModel} add an instruction at most once per key and context.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class MethodModelTest {
+
+    private static final TypeReference VECTOR = TypeReference.findOrCreate(ClassLoaderReference.Primordial, "Ljava/util/Vector");
+    private static final MethodReference HASH_CODE = MethodReference.findOrCreate(TypeReference.JavaLangObject, Selector.make("hashCode()I"));
+    private static final FieldReference FIELD = FieldReference.findOrCreate(TypeReference.JavaLangObject, Atom.findOrCreateUnicodeAtom("field"), TypeReference.JavaLangObject);
+
+    private static IClassHierarchy cha;
+    private MethodModel model;
+    private Context context;
+    private Context otherContext;
+
+    @BeforeAll
+    public static void buildClassHierarchy() throws Exception {
+        cha = makeSampleClassHierarchy();
+    }
+
+    @BeforeEach
+    public void createModel() {
+        IClass object = cha.lookupClass(TypeReference.JavaLangObject);
+        model = new MethodModel(Selector.make("model(Ljava/lang/Object;)V"), new TypeReference[0], object, cha,
+                makeAnalysisOptions(cha.getScope(), cha), makeAnalysisCache());
+        context = Everywhere.EVERYWHERE;
+        otherContext = new JavaTypeContext(new PointType(object));
+    }
+
+    @Test
+    public void testEnsureAllocation() {
+        SSANewInstruction first = model.ensureAllocation(context, VECTOR);
+        assertNotNull(first);
+        int statements = model.getNumberOfStatements(context);
+        int version = model.getVersion(context);
+
+        assertSame(first, model.ensureAllocation(context, VECTOR));
+        assertEquals(statements, model.getNumberOfStatements(context));
+        assertEquals(version, model.getVersion(context));
+
+        assertNotSame(first, model.ensureAllocation(context, TypeReference.JavaLangObject));
+        assertTrue(model.getNumberOfStatements(context) > statements);
+    }
+
+    @Test
+    public void testEnsureInvocation() {
+        SSAAbstractInvokeInstruction first = model.ensureInvocation(context, new int[]{1}, HASH_CODE, IInvokeInstruction.Dispatch.VIRTUAL);
+        int statements = model.getNumberOfStatements(context);
+
+        assertSame(first, model.ensureInvocation(context, new int[]{1}, HASH_CODE, IInvokeInstruction.Dispatch.VIRTUAL));
+        assertEquals(statements, model.getNumberOfStatements(context));
+
+        // other arguments or another dispatch are other invocations
+        assertNotSame(first, model.ensureInvocation(context, new int[]{2}, HASH_CODE, IInvokeInstruction.Dispatch.VIRTUAL));
+        assertNotSame(first, model.ensureInvocation(context, new int[]{1}, HASH_CODE, IInvokeInstruction.Dispatch.SPECIAL));
+        assertEquals(statements + 2, model.getNumberOfStatements(context));
+    }
+
+    @Test
+    public void testEnsureGetInstance() {
+        int value = model.ensureGetInstance(context, FIELD, 1);
+        int statements = model.getNumberOfStatements(context);
+
+        assertEquals(value, model.ensureGetInstance(context, FIELD, 1));
+        assertEquals(statements, model.getNumberOfStatements(context));
+
+        assertNotEquals(value, model.ensureGetInstance(context, FIELD, 2));
+        assertEquals(statements + 1, model.getNumberOfStatements(context));
+    }
+
+    @Test
+    public void testEnsureCheckcast() {
+        TypeReference[] types = {VECTOR};
+        int value = model.ensureCheckcast(context, types, 1, true);
+        int statements = model.getNumberOfStatements(context);
+
+        assertEquals(value, model.ensureCheckcast(context, new TypeReference[]{VECTOR}, 1, true));
+        assertEquals(statements, model.getNumberOfStatements(context));
+
+        assertNotEquals(value, model.ensureCheckcast(context, new TypeReference[]{TypeReference.JavaLangObject}, 1, true));
+        assertEquals(statements + 1, model.getNumberOfStatements(context));
+    }
+
+    @Test
+    public void testContextsAreIndependent() {
+        SSANewInstruction allocation = model.ensureAllocation(context, VECTOR);
+        int statements = model.getNumberOfStatements(context);
+        assertFalse(model.isModelComputed(otherContext));
+
+        SSANewInstruction otherAllocation = model.ensureAllocation(otherContext, VECTOR);
+        assertNotNull(otherAllocation);
+        assertNotSame(allocation, otherAllocation);
+        assertEquals(statements, model.getNumberOfStatements(context));
+        assertEquals(statements, model.getNumberOfStatements(otherContext));
+    }
+
+    @Test
+    public void testIRIsRebuiltOnlyWhenTheModelChanges() {
+        SSAOptions options = new SSAOptions();
+        model.ensureAllocation(context, VECTOR);
+        int version = model.getVersion(context);
+        Object ir = model.makeIR(context, options);
+
+        model.ensureAllocation(context, VECTOR);
+        assertEquals(version, model.getVersion(context));
+        assertSame(ir, model.makeIR(context, options));
+
+        model.ensureInvocation(context, new int[]{1}, HASH_CODE, IInvokeInstruction.Dispatch.VIRTUAL);
+        assertTrue(model.getVersion(context) > version);
+        assertNotSame(ir, model.makeIR(context, options));
+    }
+}
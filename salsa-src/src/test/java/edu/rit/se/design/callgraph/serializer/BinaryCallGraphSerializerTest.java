@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.serializer;
+
+import com.ibm.wala.classLoader.CallSiteReference;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import edu.rit.se.design.callgraph.model.MethodModel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.*;
+
+import static edu.rit.se.design.callgraph.TestUtilities.computeSampleCallGraph;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link BinaryCallGraphReader} reads back exactly what {@link BinaryCallGraphSerializer} saved.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class BinaryCallGraphSerializerTest {
+
+    private static CallGraph cg;
+    private static List<CGNode> nodes;
+
+    @BeforeAll
+    public static void computeCallGraph() throws Exception {
+        cg = computeSampleCallGraph();
+        // nodes are numbered in the call graph's iteration order
+        nodes = new ArrayList<>();
+        cg.forEach(nodes::add);
+    }
+
+    @Test
+    public void testRoundTrip(@TempDir File tmp) throws Exception {
+        File file = new File(tmp, "cg.bin");
+        new BinaryCallGraphSerializer().save(cg, file);
+
+        Map<CGNode, Integer> index = new HashMap<>();
+        for (int i = 0; i < nodes.size(); i++) index.put(nodes.get(i), i);
+        Set<CGNode> entrypoints = new HashSet<>(cg.getEntrypointNodes());
+
+        try (BinaryCallGraphReader reader = new BinaryCallGraphReader(file)) {
+            assertEquals(nodes.size(), reader.getNumberOfNodes());
+            int edges = 0;
+            for (int i = 0; i < nodes.size(); i++) {
+                CGNode node = nodes.get(i);
+                assertEquals(node.getMethod().getSignature(), reader.getMethod(i));
+                assertEquals(node.getMethod() instanceof MethodModel, reader.isModel(i));
+                assertEquals(entrypoints.contains(node), reader.isEntrypoint(i));
+                assertEquals(node.equals(cg.getFakeRootNode()), reader.isFakeRoot(i));
+
+                List<Integer> targets = new ArrayList<>();
+                List<Integer> pcs = new ArrayList<>();
+                for (Iterator<CallSiteReference> it = node.iterateCallSites(); it.hasNext(); ) {
+                    CallSiteReference cs = it.next();
+                    for (CGNode target : cg.getPossibleTargets(node, cs)) {
+                        targets.add(index.get(target));
+                        pcs.add(cs.getProgramCounter());
+                    }
+                }
+                assertEquals(targets, toList(reader.getSuccessors(i)), "successors of " + node);
+                assertEquals(pcs, toList(reader.getSuccessorPcs(i)), "call sites of " + node);
+                assertEquals(targets.size(), reader.getNumberOfSuccessors(i));
+                edges += targets.size();
+            }
+            assertEquals(edges, reader.getNumberOfEdges());
+        }
+    }
+
+    @Test
+    public void testPredecessorsMirrorSuccessors(@TempDir File tmp) throws Exception {
+        File file = new File(tmp, "cg.bin");
+        new BinaryCallGraphSerializer().save(cg, file);
+
+        try (BinaryCallGraphReader reader = new BinaryCallGraphReader(file)) {
+            // (caller, pc, target) triples seen from both sides
+            List<String> fromSuccessors = new ArrayList<>();
+            List<String> fromPredecessors = new ArrayList<>();
+            for (int i = 0; i < reader.getNumberOfNodes(); i++) {
+                int[] targets = reader.getSuccessors(i);
+                int[] succPcs = reader.getSuccessorPcs(i);
+                for (int e = 0; e < targets.length; e++) fromSuccessors.add(i + ":" + succPcs[e] + ":" + targets[e]);
+                int[] sources = reader.getPredecessors(i);
+                int[] predPcs = reader.getPredecessorPcs(i);
+                assertEquals(sources.length, reader.getNumberOfPredecessors(i));
+                for (int e = 0; e < sources.length; e++) fromPredecessors.add(sources[e] + ":" + predPcs[e] + ":" + i);
+            }
+            Collections.sort(fromSuccessors);
+            Collections.sort(fromPredecessors);
+            assertEquals(fromSuccessors, fromPredecessors);
+        }
+    }
+
+    @Test
+    public void testFindNodes(@TempDir File tmp) throws Exception {
+        File file = new File(tmp, "cg.bin");
+        new BinaryCallGraphSerializer().save(cg, file);
+
+        try (BinaryCallGraphReader reader = new BinaryCallGraphReader(file)) {
+            for (int i = 0; i < nodes.size(); i++) {
+                int node = i;
+                String signature = nodes.get(i).getMethod().getSignature();
+                int[] found = reader.findNodes(signature);
+                assertTrue(Arrays.stream(found).anyMatch(n -> n == node), signature + " not found");
+                for (int n : found) assertEquals(signature, reader.getMethod(n));
+            }
+            assertEquals(0, reader.findNodes("does.not.Exist.method()V").length);
+        }
+    }
+
+    private static List<Integer> toList(int[] values) {
+        List<Integer> list = new ArrayList<>(values.length);
+        for (int v : values) list.add(v);
+        return list;
+    }
+}
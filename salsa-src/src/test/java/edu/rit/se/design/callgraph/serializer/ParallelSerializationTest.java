@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.serializer;
+
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static edu.rit.se.design.callgraph.TestUtilities.computeSampleCallGraph;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that rendering the output with several threads (see {@link PartitionedWriter}) yields the same bytes as the
+ * sequential serializers.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class ParallelSerializationTest {
+
+    private static final int OUTPUT_THREADS = 4;
+    private static CallGraph cg;
+
+    @BeforeAll
+    public static void computeCallGraph() throws Exception {
+        cg = computeSampleCallGraph();
+    }
+
+    @Test
+    public void testJavaCallGraphSerializer(@TempDir File tmp) throws Exception {
+        JavaCallGraphSerializer sequential = new JavaCallGraphSerializer();
+        JavaCallGraphSerializer parallel = new JavaCallGraphSerializer();
+        parallel.setOutputThreads(OUTPUT_THREADS);
+        assertSameOutput(sequential, parallel, tmp, "cg.txt");
+    }
+
+    @Test
+    public void testJDynCallGraphSerializer(@TempDir File tmp) throws Exception {
+        JDynCallGraphSerializer sequential = new JDynCallGraphSerializer();
+        JDynCallGraphSerializer parallel = new JDynCallGraphSerializer();
+        parallel.setOutputThreads(OUTPUT_THREADS);
+        assertSameOutput(sequential, parallel, tmp, "cg.txt");
+    }
+
+    @Test
+    public void testCompressedOutput(@TempDir File tmp) throws Exception {
+        JavaCallGraphSerializer sequential = new JavaCallGraphSerializer(true);
+        JavaCallGraphSerializer parallel = new JavaCallGraphSerializer(true);
+        parallel.setOutputThreads(OUTPUT_THREADS);
+        assertSameOutput(sequential, parallel, tmp, "cg.txt.gz");
+    }
+
+    @Test
+    public void testJsonJcgSerializer(@TempDir File tmp) throws Exception {
+        // default configuration (pretty printing)
+        JsonJcgSerializer sequential = new JsonJcgSerializer();
+        JsonJcgSerializer parallel = new JsonJcgSerializer();
+        parallel.setOutputThreads(OUTPUT_THREADS);
+        assertSameOutput(sequential, parallel, tmp, "cg.json");
+    }
+
+    @Test
+    public void testCompactJsonJcgSerializer(@TempDir File tmp) throws Exception {
+        JsonJcgSerializer sequential = new JsonJcgSerializer(false);
+        JsonJcgSerializer parallel = new JsonJcgSerializer(false);
+        parallel.setOutputThreads(OUTPUT_THREADS);
+        assertSameOutput(sequential, parallel, tmp, "cg.json");
+    }
+
+    private static void assertSameOutput(ICallGraphSerializer sequential, ICallGraphSerializer parallel, File tmp, String fileName) throws Exception {
+        File sequentialFile = new File(tmp, "sequential-" + fileName);
+        File parallelFile = new File(tmp, "parallel-" + fileName);
+        sequential.save(cg, sequentialFile);
+        parallel.save(cg, parallelFile);
+        byte[] expected = Files.readAllBytes(sequentialFile.toPath());
+        assertTrue(expected.length > 0, "empty output");
+        assertArrayEquals(expected, Files.readAllBytes(parallelFile.toPath()));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.util;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static edu.rit.se.design.callgraph.TestUtilities.makeSampleClassHierarchy;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks when {@link SerializableClassIndex} reuses, recomputes and deletes its cache files.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class SerializableClassIndexTest {
+
+    private static final long OLD_TIMESTAMP = 1_000_000L;
+
+    private static IClassHierarchy cha;
+    private static SerializableClassIndex expected;
+
+    @BeforeAll
+    public static void computeIndex() throws Exception {
+        cha = makeSampleClassHierarchy();
+        expected = SerializableClassIndex.compute(cha);
+        assertFalse(expected.getSerializableClasses().isEmpty());
+    }
+
+    @Test
+    public void testMissSavesIndex(@TempDir File cacheDir) throws Exception {
+        SerializableClassIndex index = SerializableClassIndex.findOrCompute(cha, writeExclusions(cacheDir, "a.txt", "java\\/awt\\/.*\n"), cacheDir);
+        assertSameIndex(index);
+        assertEquals(1, listIndexes(cacheDir).length);
+    }
+
+    @Test
+    public void testHitLoadsIndex(@TempDir File cacheDir) throws Exception {
+        File exclusions = writeExclusions(cacheDir, "a.txt", "java\\/awt\\/.*\n");
+        SerializableClassIndex.findOrCompute(cha, exclusions, cacheDir);
+        File cached = listIndexes(cacheDir)[0];
+        assertTrue(cached.setLastModified(OLD_TIMESTAMP));
+
+        SerializableClassIndex index = SerializableClassIndex.findOrCompute(cha, exclusions, cacheDir);
+        assertSameIndex(index);
+        // it would have been saved again if it had been recomputed
+        assertEquals(OLD_TIMESTAMP, cached.lastModified());
+        assertEquals(1, listIndexes(cacheDir).length);
+    }
+
+    @Test
+    public void testExclusionsInvalidateIndex(@TempDir File cacheDir) throws Exception {
+        SerializableClassIndex.findOrCompute(cha, writeExclusions(cacheDir, "a.txt", "java\\/awt\\/.*\n"), cacheDir);
+        File first = listIndexes(cacheDir)[0];
+
+        SerializableClassIndex index = SerializableClassIndex.findOrCompute(cha, writeExclusions(cacheDir, "b.txt", "javax\\/swing\\/.*\n"), cacheDir);
+        assertSameIndex(index);
+        File[] files = listIndexes(cacheDir);
+        assertEquals(1, files.length, "the index for the previous exclusions should have been deleted");
+        assertNotEquals(first.getName(), files[0].getName());
+    }
+
+    @Test
+    public void testCorruptedIndexIsRecomputed(@TempDir File cacheDir) throws Exception {
+        File exclusions = writeExclusions(cacheDir, "a.txt", "java\\/awt\\/.*\n");
+        SerializableClassIndex.findOrCompute(cha, exclusions, cacheDir);
+        File cached = listIndexes(cacheDir)[0];
+        Files.write(cached.toPath(), new byte[]{1, 2, 3});
+
+        SerializableClassIndex index = SerializableClassIndex.findOrCompute(cha, exclusions, cacheDir);
+        assertSameIndex(index);
+        assertTrue(cached.length() > 3, "the corrupted index should have been replaced");
+    }
+
+    @Test
+    public void testWithoutCacheDir() {
+        assertSameIndex(SerializableClassIndex.findOrCompute(cha, null, null));
+    }
+
+    private static void assertSameIndex(SerializableClassIndex index) {
+        assertEquals(expected.getSerializableClasses(), index.getSerializableClasses());
+        for (IClass c : expected.getSerializableClasses())
+            assertEquals(expected.getCallbackMask(c), index.getCallbackMask(c), "callbacks of " + c);
+    }
+
+    private static File writeExclusions(File dir, String name, String contents) throws Exception {
+        File file = new File(dir, name);
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static File[] listIndexes(File cacheDir) {
+        File[] files = cacheDir.listFiles((dir, name) -> name.startsWith("serializable-") && name.endsWith(".bin"));
+        assertNotNull(files);
+        return files;
+    }
+}
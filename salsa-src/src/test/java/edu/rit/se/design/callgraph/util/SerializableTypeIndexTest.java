@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2020 - Present. Rochester Institute of Technology
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.rit.se.design.callgraph.util;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.types.TypeReference;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static edu.rit.se.design.callgraph.TestUtilities.makeSampleClassHierarchy;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link SerializableTypeIndex} yields the same possible types as the linear scan in
+ * {@link SerializationUtils#computePossibleTypes(IClassHierarchy, IClass, IClass, Set, boolean, int)}.
+ *
+ * @author Joanna C. S. Santos (jds5109@rit.edu)
+ */
+public class SerializableTypeIndexTest {
+
+    private static IClassHierarchy cha;
+    private static Set<IClass> serializableClasses;
+    private static SerializableTypeIndex index;
+    /**
+     * classes where the fields are declared (application and JDK classes, so that package-private classes are covered)
+     */
+    private static List<IClass> declaringClasses;
+    private static List<IClass> staticTypes;
+
+    @BeforeAll
+    public static void buildIndex() throws Exception {
+        cha = makeSampleClassHierarchy();
+        serializableClasses = SerializableClassIndex.compute(cha).getSerializableClasses();
+        index = new SerializableTypeIndex(cha, serializableClasses);
+
+        declaringClasses = new ArrayList<>();
+        staticTypes = new ArrayList<>();
+        for (IClass c : cha) {
+            if (c.getClassLoader().getReference().equals(ClassLoaderReference.Application)) {
+                declaringClasses.add(c);
+                staticTypes.add(c);
+            }
+        }
+        declaringClasses.add(lookup("Ljava/util/HashMap"));
+        declaringClasses.add(lookup("Ljava/lang/String"));
+        for (String type : new String[]{"Ljava/lang/Object", "Ljava/io/Serializable", "Ljava/lang/Number", "Ljava/lang/Comparable",
+                "Ljava/util/List", "Ljava/util/Set", "Ljava/util/Map", "Ljava/util/AbstractMap", "Ljava/lang/String"})
+            staticTypes.add(lookup(type));
+        staticTypes.add(cha.lookupClass(TypeReference.findOrCreateArrayOf(TypeReference.JavaLangObject)));
+        assertFalse(declaringClasses.isEmpty());
+    }
+
+    private static IClass lookup(String typeName) {
+        IClass c = cha.lookupClass(TypeReference.findOrCreate(ClassLoaderReference.Primordial, typeName));
+        assertNotNull(c, typeName + " is not in the class hierarchy");
+        return c;
+    }
+
+    @Test
+    public void testSameTypesAsLinearScan() {
+        for (IClass declaringClass : declaringClasses) {
+            for (IClass type : staticTypes) {
+                Set<IClass> expected = SerializationUtils.computePossibleTypes(cha, declaringClass, type, serializableClasses, false, 0);
+                Set<IClass> actual = SerializationUtils.computePossibleTypes(index, declaringClass, type, false, 0);
+                assertEquals(expected, actual, "possible types of " + type + " declared in " + declaringClass);
+            }
+        }
+    }
+
+    @Test
+    public void testSameTypesAsLinearScanWithPruning() {
+        int threshold = 10;
+        for (IClass declaringClass : declaringClasses) {
+            for (IClass type : staticTypes) {
+                Set<IClass> expected = SerializationUtils.computePossibleTypes(cha, declaringClass, type, serializableClasses, true, threshold);
+                Set<IClass> actual = SerializationUtils.computePossibleTypes(index, declaringClass, type, true, threshold);
+                assertEquals(expected, actual, "pruned possible types of " + type + " declared in " + declaringClass);
+            }
+        }
+    }
+
+    @Test
+    public void testQueriesReturnFreshSets() {
+        IClass object = lookup("Ljava/lang/Object");
+        Set<IClass> first = index.getAccessibleSubtypes(declaringClasses.get(0), object);
+        assertFalse(first.isEmpty());
+        first.clear();
+        assertFalse(index.getAccessibleSubtypes(declaringClasses.get(0), object).isEmpty());
+    }
+
+    @Test
+    public void testUnknownTypes() {
+        assertTrue(index.getAccessibleSubtypes(declaringClasses.get(0), null).isEmpty());
+        assertTrue(SerializationUtils.computePossibleTypes(index, declaringClasses.get(0), null, false, 0).isEmpty());
+    }
+}